@@ -2,6 +2,7 @@ plugins {
     java
     id("org.springframework.boot") version "3.2.0"
     id("io.spring.dependency-management") version "1.1.4"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "org.itmo"
@@ -19,10 +20,15 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter-amqp")
     implementation("org.springframework.boot:spring-boot-starter-json")
     implementation("org.springframework.boot:spring-boot-starter")
+    implementation("org.springframework.boot:spring-boot-starter-web")
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
+    runtimeOnly("io.micrometer:micrometer-registry-prometheus")
 
     implementation("edu.stanford.nlp:stanford-corenlp:4.5.5")
     implementation("edu.stanford.nlp:stanford-corenlp:4.5.5:models")
 
+    implementation("org.lz4:lz4-java:1.8.0")
+
     implementation("javax.xml.bind:jaxb-api:2.3.1")
     implementation("org.glassfish.jaxb:jaxb-runtime:2.3.1")
     implementation("javax.activation:activation:1.1.1")
@@ -34,3 +40,15 @@ dependencies {
 tasks.test {
     useJUnitPlatform()
 }
+
+jmh {
+    jmhVersion = "1.37"
+    // fixed forks, iterations and corpus seeds keep runs comparable; narrow with -PjmhIncludes=<regex>
+    includes = listOf(project.findProperty("jmhIncludes")?.toString() ?: ".*")
+    fork = 1
+    warmupIterations = 3
+    iterations = 5
+    timeUnit = "ms"
+    resultFormat = "JSON"
+    resultsFile = layout.buildDirectory.file("reports/jmh/results.json")
+}
@@ -0,0 +1,61 @@
+package org.itmo.distributed.bench;
+
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+
+import org.itmo.distributed.dto.Analysis;
+import org.itmo.distributed.dto.NameEngine;
+import org.itmo.distributed.dto.ResultMessage;
+import org.itmo.distributed.dto.SentimentEngine;
+import org.itmo.distributed.dto.TaskMessage;
+import org.itmo.distributed.service.TextProcessingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost of one worker chunk per analysis and engine. Each variant selects a different annotator set
+ * ({@code tokenize, ssplit} only for word counts and the lexicon/gazetteer engines, up to
+ * {@code pos, lemma, ner} or {@code parse, sentiment}), so the differences are the annotator costs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AnnotatorBenchmark {
+
+    @Param({"WORD_COUNT", "TOP_N", "SENTIMENT/RNN", "SENTIMENT/LEXICON", "SENTIMENT/AGREEMENT",
+            "NAME_REPLACEMENT/NER", "NAME_REPLACEMENT/GAZETTEER", "SENTENCE_SORT"})
+    public String variant;
+
+    @Param({Corpora.SYNTHETIC, Corpora.SAMPLE})
+    public String corpus;
+
+    @Param({"4000"})
+    public int chunkChars;
+
+    private TextProcessingService service;
+    private TaskMessage task;
+
+    @Setup
+    public void setUp() {
+        String[] parts = variant.split("/");
+        Analysis analysis = Analysis.valueOf(parts[0]);
+        String engine = parts.length > 1 ? parts[1] : null;
+        task = Workers.task(Corpora.text(corpus, chunkChars), EnumSet.of(analysis),
+                analysis == Analysis.SENTIMENT ? SentimentEngine.valueOf(engine) : null,
+                analysis == Analysis.NAME_REPLACEMENT ? NameEngine.valueOf(engine) : null);
+        service = Workers.textProcessingService();
+        // loads the models outside the measurement
+        service.process(task);
+    }
+
+    @Benchmark
+    public ResultMessage process() {
+        return service.process(task);
+    }
+}
@@ -0,0 +1,71 @@
+package org.itmo.distributed.bench;
+
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+
+import org.itmo.distributed.dto.Analysis;
+import org.itmo.distributed.dto.NameEngine;
+import org.itmo.distributed.dto.ResultMessage;
+import org.itmo.distributed.dto.SentimentEngine;
+import org.itmo.distributed.dto.TaskMessage;
+import org.itmo.distributed.service.TextProcessingService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Worker throughput over chunk sizes with every analysis enabled. Besides chunks per millisecond the
+ * {@code chars} counter reports characters per millisecond, which is what the chunk size trades against
+ * per-message overhead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ChunkSizeBenchmark {
+
+    @Param({"1000", "4000", "16000", "64000"})
+    public int chunkChars;
+
+    @Param({"fast", "nlp"})
+    public String engines;
+
+    @Param({Corpora.SYNTHETIC})
+    public String corpus;
+
+    private TextProcessingService service;
+    private TaskMessage task;
+
+    @Setup
+    public void setUp() {
+        boolean fast = engines.equals("fast");
+        task = Workers.task(Corpora.text(corpus, chunkChars), EnumSet.allOf(Analysis.class),
+                fast ? SentimentEngine.LEXICON : SentimentEngine.RNN,
+                fast ? NameEngine.GAZETTEER : NameEngine.NER);
+        service = Workers.textProcessingService();
+        service.process(task);
+    }
+
+    @Benchmark
+    public ResultMessage process(Characters characters) {
+        characters.chars += task.content().length();
+        return service.process(task);
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Characters {
+        public long chars;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            chars = 0;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package org.itmo.distributed.bench;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Benchmark input text. {@code sample} repeats the bundled {@code corpus/sample.txt}; {@code synthetic}
+ * draws seeded sentences from common words, the sentiment lexicon and the name gazetteer, so every run
+ * sees the same text.
+ */
+public final class Corpora {
+    public static final String SAMPLE = "sample";
+    public static final String SYNTHETIC = "synthetic";
+    public static final long SEED = 42;
+
+    private static final String[] COMMON_WORDS = {
+            "the", "a", "and", "of", "to", "in", "was", "he", "she", "it", "that", "with", "for", "on", "at",
+            "as", "his", "her", "they", "had", "by", "from", "not", "but", "all", "were", "when", "there",
+            "one", "would", "what", "so", "out", "up", "into", "time", "house", "sea", "town", "night", "day"
+    };
+
+    private Corpora() {
+    }
+
+    public static String text(String corpus, int chars) {
+        return switch (corpus) {
+            case SAMPLE -> sample(chars);
+            case SYNTHETIC -> synthetic(chars, SEED);
+            default -> throw new IllegalArgumentException("Unknown corpus: " + corpus);
+        };
+    }
+
+    static String sample(int chars) {
+        String sample = resource("/corpus/sample.txt");
+        StringBuilder text = new StringBuilder(chars + sample.length());
+        while (text.length() < chars) {
+            text.append(sample).append('\n');
+        }
+        return cut(text, chars);
+    }
+
+    public static String synthetic(int chars, long seed) {
+        List<String> vocabulary = new ArrayList<>(List.of(COMMON_WORDS));
+        for (String line : resource("/sentiment-lexicon.tsv").split("\n")) {
+            if (!line.isBlank() && !line.startsWith("#")) {
+                vocabulary.add(line.substring(0, line.indexOf('\t')).trim());
+            }
+        }
+        List<String> names = new ArrayList<>();
+        for (String line : resource("/name-gazetteer.txt").split("\n")) {
+            if (!line.isBlank() && !line.startsWith("#")) {
+                names.add(line.trim());
+            }
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+        StringBuilder text = new StringBuilder(chars + 256);
+        int sentences = 0;
+        while (text.length() < chars) {
+            int words = 4 + random.nextInt(27);
+            for (int i = 0; i < words; i++) {
+                // roughly every tenth word is a name, otherwise skew towards common words
+                String word = random.nextInt(10) == 0 ? names.get(random.nextInt(names.size()))
+                        : random.nextBoolean() ? COMMON_WORDS[random.nextInt(COMMON_WORDS.length)]
+                        : vocabulary.get(random.nextInt(vocabulary.size()));
+                if (i == 0) {
+                    word = Character.toUpperCase(word.charAt(0)) + word.substring(1);
+                }
+                text.append(word).append(i == words - 1 ? "" : random.nextInt(12) == 0 ? ", " : " ");
+            }
+            text.append(random.nextInt(8) == 0 ? "? " : ". ");
+            if (++sentences % 6 == 0) {
+                text.append("\n\n");
+            }
+        }
+        return cut(text, chars);
+    }
+
+    /**
+     * Cuts at the last sentence end within the limit so chunks resemble what the producer sends.
+     */
+    private static String cut(StringBuilder text, int chars) {
+        int end = Math.min(chars, text.length());
+        int sentenceEnd = Math.max(text.lastIndexOf(". ", end), text.lastIndexOf("? ", end));
+        return text.substring(0, sentenceEnd > 0 && sentenceEnd + 1 <= end ? sentenceEnd + 1 : end);
+    }
+
+    private static String resource(String name) {
+        try (InputStream stream = Corpora.class.getResourceAsStream(name)) {
+            if (stream == null) {
+                throw new IllegalStateException("Missing benchmark resource " + name);
+            }
+            StringBuilder text = new StringBuilder();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                text.append(line).append('\n');
+            }
+            return text.toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
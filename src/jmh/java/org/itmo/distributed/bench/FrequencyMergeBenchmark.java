@@ -0,0 +1,79 @@
+package org.itmo.distributed.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.itmo.distributed.service.topn.ApproximateTopN;
+import org.itmo.distributed.service.topn.ExactTopN;
+import org.itmo.distributed.service.topn.TopNEngine;
+import org.itmo.distributed.util.WordCounter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Aggregator-side merge of per-chunk word frequencies: feeding every chunk into a top-N accumulator and
+ * ranking the result, and the plain {@link WordCounter#addAll} the exact engine is built on. The sketch
+ * dimensions are the {@code app.aggregator.top-n} defaults.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FrequencyMergeBenchmark {
+    private static final Pattern WORD = Pattern.compile("\\p{L}+");
+
+    @Param({"16", "256"})
+    public int chunks;
+
+    @Param({"4000"})
+    public int chunkChars;
+
+    @Param({"EXACT", "APPROXIMATE"})
+    public String mode;
+
+    @Param({"5"})
+    public int topN;
+
+    private final List<WordCounter> frequencies = new ArrayList<>();
+    private TopNEngine engine;
+
+    @Setup
+    public void setUp() {
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            WordCounter counter = new WordCounter();
+            Matcher words = WORD.matcher(Corpora.synthetic(chunkChars, Corpora.SEED + chunk));
+            while (words.find()) {
+                counter.incrementLowerCase(words.group());
+            }
+            frequencies.add(counter);
+        }
+        engine = mode.equals("EXACT") ? new ExactTopN() : new ApproximateTopN(65536, 4, 1024);
+    }
+
+    @Benchmark
+    public Map<String, Long> topN() {
+        TopNEngine.Accumulator accumulator = engine.newAccumulator();
+        for (WordCounter counter : frequencies) {
+            accumulator.add(counter);
+        }
+        return engine.topN(List.of(accumulator), topN);
+    }
+
+    @Benchmark
+    public WordCounter addAll() {
+        WordCounter merged = new WordCounter();
+        for (WordCounter counter : frequencies) {
+            merged.addAll(counter);
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,104 @@
+package org.itmo.distributed.bench;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.itmo.distributed.codec.WireFormat;
+import org.itmo.distributed.codec.WireFormatMessageConverter;
+import org.itmo.distributed.dto.Analysis;
+import org.itmo.distributed.dto.ResultMessage;
+import org.itmo.distributed.dto.SentenceSpan;
+import org.itmo.distributed.dto.TaskMessage;
+import org.itmo.distributed.dto.TextEdit;
+import org.itmo.distributed.util.WordCounter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+
+/**
+ * Encoding and decoding of tasks and results through {@link WireFormatMessageConverter}, as configured
+ * in {@code RabbitConfig}, in each wire format. The result carries everything a chunk with all analyses
+ * produces: word frequencies, name edits, sentence spans and the chunk text.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MessageCodecBenchmark {
+    private static final Pattern WORD = Pattern.compile("\\p{L}+");
+    private static final Pattern SENTENCE = Pattern.compile("[^.?]+[.?]");
+
+    @Param({"JSON", "BINARY"})
+    public WireFormat format;
+
+    @Param({"task", "result"})
+    public String message;
+
+    @Param({"4000", "64000"})
+    public int chunkChars;
+
+    @Param({"1024"})
+    public int compressionThreshold;
+
+    private WireFormatMessageConverter converter;
+    private Object payload;
+    private Message encoded;
+
+    @Setup
+    public void setUp() {
+        converter = new WireFormatMessageConverter(new Jackson2JsonMessageConverter(), format, compressionThreshold,
+                new SimpleMeterRegistry());
+        String text = Corpora.text(Corpora.SYNTHETIC, chunkChars);
+        TaskMessage task = Workers.task(text, EnumSet.allOf(Analysis.class), null, null);
+        payload = message.equals("task") ? task : result(task);
+        encoded = converter.toMessage(payload, new MessageProperties());
+    }
+
+    @Benchmark
+    public Message serialize() {
+        return converter.toMessage(payload, new MessageProperties());
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return converter.fromMessage(encoded);
+    }
+
+    private static ResultMessage result(TaskMessage task) {
+        String text = task.content();
+        WordCounter frequencies = new WordCounter();
+        List<TextEdit> nameEdits = new ArrayList<>();
+        Matcher words = WORD.matcher(text);
+        long wordCount = 0;
+        while (words.find()) {
+            wordCount++;
+            frequencies.incrementLowerCase(words.group());
+            if (Character.isUpperCase(text.charAt(words.start())) && words.start() >= 2 && text.charAt(words.start() - 2) != '.') {
+                nameEdits.add(new TextEdit(words.start(), words.end()));
+            }
+        }
+
+        List<SentenceSpan> sentences = new ArrayList<>();
+        Matcher sentence = SENTENCE.matcher(text);
+        while (sentence.find()) {
+            sentences.add(new SentenceSpan(task.chunkIndex(), sentence.start(), sentence.end()));
+        }
+        sentences.sort((a, b) -> Integer.compare(a.length(), b.length()));
+
+        return new ResultMessage(task.id(), task.chunkIndex(), task.totalChunks(), task.options(), wordCount, frequencies,
+                0, null, sentences.size() / 3, sentences.size() / 4, null, text, nameEdits, sentences, 12,
+                task.jobStartedAt(), task.sentAt());
+    }
+}
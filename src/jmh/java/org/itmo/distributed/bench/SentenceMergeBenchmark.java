@@ -0,0 +1,76 @@
+package org.itmo.distributed.bench;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.itmo.distributed.dto.SentenceSpan;
+import org.itmo.distributed.service.ExternalSentenceSorter;
+import org.itmo.distributed.service.SentenceSortService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Aggregator k-way merge of per-chunk sentence lists sorted by length: the in-memory heap merge over
+ * spans, and the external sorter's spill and merge of the materialized sentences.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SentenceMergeBenchmark {
+    private static final int MAX_SENTENCE_CHARS = 400;
+
+    @Param({"4", "64", "1024"})
+    public int lists;
+
+    @Param({"64"})
+    public int sentencesPerList;
+
+    private final List<String> chunkTexts = new ArrayList<>();
+    private final List<List<SentenceSpan>> spans = new ArrayList<>();
+    private Path spillDirectory;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(Corpora.SEED);
+        String text = Corpora.synthetic(64 * 1024, Corpora.SEED);
+        for (int chunk = 0; chunk < lists; chunk++) {
+            List<SentenceSpan> chunkSpans = new ArrayList<>(sentencesPerList);
+            for (int i = 0; i < sentencesPerList; i++) {
+                int start = random.nextInt(text.length() - MAX_SENTENCE_CHARS);
+                chunkSpans.add(new SentenceSpan(chunk, start, start + 1 + random.nextInt(MAX_SENTENCE_CHARS)));
+            }
+            chunkSpans.sort(Comparator.comparingInt(SentenceSpan::length));
+            chunkTexts.add(text);
+            spans.add(chunkSpans);
+        }
+        spillDirectory = Path.of(System.getProperty("java.io.tmpdir"), "text-processing-bench");
+    }
+
+    @Benchmark
+    public List<SentenceSpan> inMemory() {
+        return SentenceSortService.mergeSortedSentences(spans);
+    }
+
+    @Benchmark
+    public void external(Blackhole blackhole) {
+        try (ExternalSentenceSorter sorter = new ExternalSentenceSorter(spillDirectory, 64L * 1024 * 1024)) {
+            for (int chunk = 0; chunk < lists; chunk++) {
+                sorter.addRun(chunkTexts.get(chunk), spans.get(chunk));
+            }
+            for (String sentence : sorter.merge()) {
+                blackhole.consume(sentence);
+            }
+        }
+    }
+}
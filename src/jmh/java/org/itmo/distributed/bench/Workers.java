@@ -0,0 +1,49 @@
+package org.itmo.distributed.bench;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Set;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.itmo.distributed.dto.Analysis;
+import org.itmo.distributed.dto.JobOptions;
+import org.itmo.distributed.dto.NameEngine;
+import org.itmo.distributed.dto.SentimentEngine;
+import org.itmo.distributed.dto.TaskMessage;
+import org.itmo.distributed.dto.TopNMode;
+import org.itmo.distributed.service.CombinerService;
+import org.itmo.distributed.service.GazetteerNames;
+import org.itmo.distributed.service.LexiconSentiment;
+import org.itmo.distributed.service.ResultCache;
+import org.itmo.distributed.service.TextProcessingService;
+import org.springframework.amqp.core.Queue;
+import org.springframework.core.io.ClassPathResource;
+
+/**
+ * Builds a worker {@link TextProcessingService} without Spring or a broker: one pipeline per annotator
+ * set, the result cache disabled and the bundled lexicon and gazetteer.
+ */
+public final class Workers {
+    private Workers() {
+    }
+
+    public static TextProcessingService textProcessingService() {
+        try {
+            return new TextProcessingService(1,
+                    new CombinerService(64),
+                    new ResultCache(false, Path.of("result-cache"), 0),
+                    new LexiconSentiment(new ClassPathResource("sentiment-lexicon.tsv")),
+                    new GazetteerNames(new ClassPathResource("name-gazetteer.txt")),
+                    new Queue("bench.counts"),
+                    new SimpleMeterRegistry());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static TaskMessage task(String text, Set<Analysis> analyses, SentimentEngine sentimentEngine, NameEngine nameEngine) {
+        JobOptions options = new JobOptions(analyses, JobOptions.DEFAULT_TOP_N, TopNMode.EXACT, 0, sentimentEngine, nameEngine);
+        return new TaskMessage("bench", 0, 1, text, options, 0, 0);
+    }
+}
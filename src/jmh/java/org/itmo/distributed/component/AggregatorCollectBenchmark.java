@@ -0,0 +1,207 @@
+package org.itmo.distributed.component;
+
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.itmo.distributed.bench.Corpora;
+import org.itmo.distributed.bench.Workers;
+import org.itmo.distributed.dto.Analysis;
+import org.itmo.distributed.dto.ChunkProgress;
+import org.itmo.distributed.dto.CountReply;
+import org.itmo.distributed.dto.CountRequest;
+import org.itmo.distributed.dto.NameEngine;
+import org.itmo.distributed.dto.ResultMessage;
+import org.itmo.distributed.dto.SentenceSpan;
+import org.itmo.distributed.dto.SentimentEngine;
+import org.itmo.distributed.dto.TaskMessage;
+import org.itmo.distributed.service.CheckpointStore;
+import org.itmo.distributed.service.TextProcessingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * {@link Aggregator#collect} per result: the duplicate check, the checkpoint append, the totals and
+ * top-N accumulator updates, and with every analysis the sentence lists and the text streamed into the
+ * report. {@code collectJob} feeds whole jobs of real worker results (lexicon and gazetteer engines); the
+ * last chunk hands the job to the aggregator's finalizer pool, which is drained outside the measurement.
+ * {@code collectDuplicate} measures a redelivery that is dropped.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AggregatorCollectBenchmark {
+    private static final int CHUNKS = 64;
+
+    @Param({"counts", "all"})
+    public String analyses;
+
+    @Param({"false", "true"})
+    public boolean checkpoint;
+
+    @Param({"4000"})
+    public int chunkChars;
+
+    private final List<ResultMessage> chunks = new ArrayList<>();
+    private Aggregator aggregator;
+    private ThreadPoolExecutor finalizer;
+    private Path checkpointDir;
+    private String jobPrefix;
+    private int jobs;
+    private ResultMessage duplicate;
+
+    @Setup
+    public void setUp() {
+        Set<Analysis> selected = analyses.equals("all")
+                ? EnumSet.allOf(Analysis.class)
+                : EnumSet.of(Analysis.WORD_COUNT, Analysis.TOP_N, Analysis.SENTIMENT);
+        TextProcessingService service = Workers.textProcessingService();
+        for (int chunk = 0; chunk < CHUNKS; chunk++) {
+            TaskMessage task = Workers.task(Corpora.synthetic(chunkChars, Corpora.SEED + chunk), selected,
+                    SentimentEngine.LEXICON, NameEngine.GAZETTEER);
+            chunks.add(chunk(service.process(task), "", chunk, chunk == CHUNKS - 1 ? CHUNKS : 0));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void startAggregator() throws Exception {
+        aggregator = new Aggregator(new ObjectMapper(), new DiscardingTransport(), 65536, 4, 1024, 1, 1,
+                new SimpleMeterRegistry());
+        finalizer = (ThreadPoolExecutor) field("finalizer").get(aggregator);
+        if (checkpoint) {
+            checkpointDir = Files.createTempDirectory("checkpoints-");
+            // set up by recover() from the application properties otherwise
+            field("checkpoints").set(aggregator, new CheckpointStore(checkpointDir, false));
+        }
+        jobPrefix = "bench-" + System.nanoTime() + "-";
+        jobs = 0;
+
+        // a job that never completes, holding one chunk to be redelivered
+        duplicate = chunk(chunks.getFirst(), jobPrefix + "open", 0, 0);
+        aggregator.collect(duplicate);
+    }
+
+    @TearDown(Level.Iteration)
+    public void stopAggregator() throws Exception {
+        aggregator.shutdown();
+        for (int job = 0; job < jobs; job++) {
+            Files.deleteIfExists(Aggregator.reportPath(jobPrefix + job));
+        }
+        Path open = Aggregator.reportPath(jobPrefix + "open");
+        Files.deleteIfExists(open.resolveSibling(open.getFileName() + ".part"));
+        if (checkpointDir != null) {
+            try (Stream<Path> files = Files.list(checkpointDir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(checkpointDir);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHUNKS)
+    public boolean collectJob(Finalization finalization) {
+        String taskId = jobPrefix + jobs++;
+        boolean collected = true;
+        for (ResultMessage chunk : chunks) {
+            collected &= aggregator.collect(chunk(chunk, taskId, chunk.chunkIndex(), chunk.totalChunks()));
+        }
+        return collected;
+    }
+
+    @Benchmark
+    public boolean collectDuplicate() {
+        return aggregator.collect(duplicate);
+    }
+
+    /**
+     * Keeps finished jobs from piling up in the finalizer queue and competing with the measured ones.
+     * A state of its own so that the per-invocation fixture does not apply to {@code collectDuplicate}.
+     */
+    @State(Scope.Benchmark)
+    public static class Finalization {
+        @TearDown(Level.Invocation)
+        public void await(AggregatorCollectBenchmark benchmark) throws InterruptedException {
+            while (benchmark.finalizer.getActiveCount() > 0 || !benchmark.finalizer.getQueue().isEmpty()) {
+                Thread.sleep(1);
+            }
+        }
+    }
+
+    private static Field field(String name) throws NoSuchFieldException {
+        Field field = Aggregator.class.getDeclaredField(name);
+        field.setAccessible(true);
+        return field;
+    }
+
+    private static ResultMessage chunk(ResultMessage result, String taskId, int chunkIndex, int totalChunks) {
+        List<SentenceSpan> spans = result.sortedSentences();
+        if (chunkIndex != result.chunkIndex()) {
+            spans = new ArrayList<>(spans.size());
+            for (SentenceSpan span : result.sortedSentences()) {
+                spans.add(new SentenceSpan(chunkIndex, span.start(), span.end()));
+            }
+        }
+        long now = System.currentTimeMillis();
+        return new ResultMessage(taskId, chunkIndex, totalChunks, result.options(), result.wordCount(),
+                result.wordFrequencies(), result.residualBound(), result.countQueue(), result.positiveCount(),
+                result.negativeCount(), result.sentimentAgreement(), result.text(), result.nameEdits(), spans,
+                result.processingTimeMs(), now, now);
+    }
+
+    private static class DiscardingTransport implements MessageTransport {
+        @Override
+        public CompletableFuture<Void> sendTask(TaskMessage task) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<Void> sendResult(ResultMessage result) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public void sendProgress(ChunkProgress progress) {
+        }
+
+        @Override
+        public void sendCountRequest(String queue, CountRequest request) {
+        }
+
+        @Override
+        public void sendCountReply(CountReply reply) {
+        }
+
+        @Override
+        public long flush() {
+            return 0;
+        }
+
+        @Override
+        public Subscription subscribeProgress(String taskId, Consumer<ChunkProgress> consumer) {
+            return () -> {
+            };
+        }
+    }
+}
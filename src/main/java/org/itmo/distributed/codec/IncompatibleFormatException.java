@@ -0,0 +1,10 @@
+package org.itmo.distributed.codec;
+
+/**
+ * Thrown when a binary payload was written by a different version of {@link MessageCodec}.
+ */
+public class IncompatibleFormatException extends IllegalArgumentException {
+    public IncompatibleFormatException(String message) {
+        super(message);
+    }
+}
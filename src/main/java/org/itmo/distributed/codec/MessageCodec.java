@@ -0,0 +1,290 @@
+package org.itmo.distributed.codec;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.itmo.distributed.dto.Analysis;
+import org.itmo.distributed.dto.ChunkProgress;
+import org.itmo.distributed.dto.JobOptions;
+import org.itmo.distributed.dto.NameEngine;
+import org.itmo.distributed.dto.ResultMessage;
+import org.itmo.distributed.dto.SentimentAgreement;
+import org.itmo.distributed.dto.SentimentEngine;
+import org.itmo.distributed.dto.SentenceSpan;
+import org.itmo.distributed.dto.TaskMessage;
+import org.itmo.distributed.dto.TextEdit;
+import org.itmo.distributed.dto.TopNMode;
+import org.itmo.distributed.util.WordCounter;
+
+/**
+ * Compact binary encoding of the broker messages: varint numbers, length-prefixed UTF-8 strings
+ * and a front-coded (sorted, shared-prefix) vocabulary for word frequencies.
+ * <p>
+ * The first byte holds the format {@link #VERSION} in its high four bits and the message tag in the low
+ * four, so payloads persisted by the result cache and the checkpoint log are never decoded with another
+ * field layout. Payloads written before the version was introduced read as version 0.
+ */
+public final class MessageCodec {
+    /**
+     * Must be incremented whenever the layout of an encoded message or of {@link JobOptions} changes.
+     */
+    public static final int VERSION = 1;
+
+    private static final int TASK = 1;
+    private static final int RESULT = 2;
+    private static final int PROGRESS = 3;
+
+    private MessageCodec() {
+    }
+
+    public static boolean supports(Object object) {
+        return object instanceof TaskMessage || object instanceof ResultMessage || object instanceof ChunkProgress;
+    }
+
+    public static byte[] encode(Object object) {
+        BinaryWriter writer = new BinaryWriter();
+        switch (object) {
+            case TaskMessage task -> {
+                writer.writeByte(header(TASK));
+                writeTask(writer, task);
+            }
+            case ResultMessage result -> {
+                writer.writeByte(header(RESULT));
+                writeResult(writer, result);
+            }
+            case ChunkProgress progress -> {
+                writer.writeByte(header(PROGRESS));
+                writeProgress(writer, progress);
+            }
+            default -> throw new IllegalArgumentException("Unsupported message type: " + object.getClass());
+        }
+        return writer.toByteArray();
+    }
+
+    /**
+     * @throws IncompatibleFormatException when the payload was encoded with another {@link #VERSION}
+     */
+    public static Object decode(byte[] bytes) {
+        BinaryReader reader = new BinaryReader(bytes);
+        int header = reader.readByte();
+        int version = header >>> 4;
+        if (version != VERSION) {
+            throw new IncompatibleFormatException("Message format version " + version + ", expected " + VERSION);
+        }
+        int tag = header & 0x0F;
+        return switch (tag) {
+            case TASK -> readTask(reader);
+            case RESULT -> readResult(reader);
+            case PROGRESS -> readProgress(reader);
+            default -> throw new IllegalArgumentException("Unknown message tag: " + tag);
+        };
+    }
+
+    private static int header(int tag) {
+        return VERSION << 4 | tag;
+    }
+
+    private static void writeTask(BinaryWriter writer, TaskMessage task) {
+        writer.writeString(task.id());
+        writer.writeVarInt(task.chunkIndex());
+        writer.writeVarInt(task.totalChunks());
+        writer.writeNullableString(task.content());
+        writeOptions(writer, task.options());
+        writer.writeVarLong(task.jobStartedAt());
+        writer.writeVarLong(task.sentAt());
+    }
+
+    private static TaskMessage readTask(BinaryReader reader) {
+        return new TaskMessage(
+                reader.readString(),
+                reader.readVarInt(),
+                reader.readVarInt(),
+                reader.readNullableString(),
+                readOptions(reader),
+                reader.readVarLong(),
+                reader.readVarLong()
+        );
+    }
+
+    private static void writeResult(BinaryWriter writer, ResultMessage result) {
+        writer.writeString(result.taskId());
+        writer.writeVarInt(result.chunkIndex());
+        writer.writeVarInt(result.totalChunks());
+        writeOptions(writer, result.options());
+        writer.writeVarLong(result.wordCount());
+        writeFrequencies(writer, result.wordFrequencies());
+        writer.writeVarLong(result.residualBound());
+        writer.writeNullableString(result.countQueue());
+        writer.writeVarInt(result.positiveCount());
+        writer.writeVarInt(result.negativeCount());
+        writeAgreement(writer, result.sentimentAgreement());
+        writer.writeNullableString(result.text());
+        writeEdits(writer, result.nameEdits());
+        writeSpans(writer, result.sortedSentences());
+        writer.writeVarLong(result.processingTimeMs());
+        writer.writeVarLong(result.jobStartedAt());
+        writer.writeVarLong(result.sentAt());
+    }
+
+    private static ResultMessage readResult(BinaryReader reader) {
+        String taskId = reader.readString();
+        int chunkIndex = reader.readVarInt();
+        return new ResultMessage(
+                taskId,
+                chunkIndex,
+                reader.readVarInt(),
+                readOptions(reader),
+                reader.readVarLong(),
+                readFrequencies(reader),
+                reader.readVarLong(),
+                reader.readNullableString(),
+                reader.readVarInt(),
+                reader.readVarInt(),
+                readAgreement(reader),
+                reader.readNullableString(),
+                readEdits(reader),
+                readSpans(reader, chunkIndex),
+                reader.readVarLong(),
+                reader.readVarLong(),
+                reader.readVarLong()
+        );
+    }
+
+    private static void writeProgress(BinaryWriter writer, ChunkProgress progress) {
+        writer.writeString(progress.taskId());
+        writer.writeVarInt(progress.chunkIndex());
+        writer.writeVarLong(progress.processingTimeMs());
+    }
+
+    private static ChunkProgress readProgress(BinaryReader reader) {
+        return new ChunkProgress(reader.readString(), reader.readVarInt(), reader.readVarLong());
+    }
+
+    private static void writeOptions(BinaryWriter writer, JobOptions options) {
+        int mask = 0;
+        for (Analysis analysis : options.analyses()) {
+            mask |= 1 << analysis.ordinal();
+        }
+        writer.writeVarInt(mask);
+        writer.writeVarInt(options.topN());
+        writer.writeByte(options.topNMode().ordinal());
+        writer.writeVarInt(options.combinerTopK());
+        writer.writeByte(options.sentimentEngine().ordinal());
+        writer.writeByte(options.nameEngine().ordinal());
+    }
+
+    private static JobOptions readOptions(BinaryReader reader) {
+        int mask = reader.readVarInt();
+        Set<Analysis> analyses = EnumSet.noneOf(Analysis.class);
+        for (Analysis analysis : Analysis.values()) {
+            if ((mask & (1 << analysis.ordinal())) != 0) {
+                analyses.add(analysis);
+            }
+        }
+        return new JobOptions(analyses, reader.readVarInt(), TopNMode.values()[reader.readByte()], reader.readVarInt(),
+                SentimentEngine.values()[reader.readByte()], NameEngine.values()[reader.readByte()]);
+    }
+
+    private static void writeAgreement(BinaryWriter writer, SentimentAgreement agreement) {
+        writer.writeBoolean(agreement != null);
+        if (agreement != null) {
+            writer.writeVarInt(agreement.lexiconPositive());
+            writer.writeVarInt(agreement.lexiconNegative());
+            writer.writeVarInt(agreement.agreed());
+            writer.writeVarInt(agreement.compared());
+        }
+    }
+
+    private static SentimentAgreement readAgreement(BinaryReader reader) {
+        if (!reader.readBoolean()) {
+            return null;
+        }
+        return new SentimentAgreement(reader.readVarInt(), reader.readVarInt(), reader.readVarInt(), reader.readVarInt());
+    }
+
+    private static void writeFrequencies(BinaryWriter writer, WordCounter frequencies) {
+        String[] words = frequencies.sortedKeys();
+        writer.writeVarInt(words.length);
+
+        String previous = "";
+        for (String word : words) {
+            int shared = sharedPrefix(previous, word);
+            writer.writeVarInt(shared);
+            writer.writeString(word.substring(shared));
+            writer.writeVarLong(frequencies.get(word));
+            previous = word;
+        }
+    }
+
+    private static WordCounter readFrequencies(BinaryReader reader) {
+        int size = reader.readVarInt();
+        WordCounter frequencies = new WordCounter(size);
+
+        String previous = "";
+        for (int i = 0; i < size; i++) {
+            int shared = reader.readVarInt();
+            String word = previous.substring(0, shared) + reader.readString();
+            frequencies.add(word, reader.readVarLong());
+            previous = word;
+        }
+        return frequencies;
+    }
+
+    private static void writeEdits(BinaryWriter writer, List<TextEdit> edits) {
+        writer.writeVarInt(edits.size());
+        int previousEnd = 0;
+        for (TextEdit edit : edits) {
+            writer.writeVarInt(edit.start() - previousEnd);
+            writer.writeVarInt(edit.end() - edit.start());
+            previousEnd = edit.end();
+        }
+    }
+
+    private static List<TextEdit> readEdits(BinaryReader reader) {
+        int size = reader.readVarInt();
+        List<TextEdit> edits = new ArrayList<>(size);
+        int previousEnd = 0;
+        for (int i = 0; i < size; i++) {
+            int start = previousEnd + reader.readVarInt();
+            int end = start + reader.readVarInt();
+            edits.add(new TextEdit(start, end));
+            previousEnd = end;
+        }
+        return edits;
+    }
+
+    /**
+     * Spans of one result always belong to its chunk, so only the offsets are written.
+     */
+    private static void writeSpans(BinaryWriter writer, List<SentenceSpan> spans) {
+        writer.writeVarInt(spans.size());
+        for (SentenceSpan span : spans) {
+            writer.writeVarInt(span.start());
+            writer.writeVarInt(span.length());
+        }
+    }
+
+    private static List<SentenceSpan> readSpans(BinaryReader reader, int chunkIndex) {
+        int size = reader.readVarInt();
+        List<SentenceSpan> spans = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int start = reader.readVarInt();
+            spans.add(new SentenceSpan(chunkIndex, start, start + reader.readVarInt()));
+        }
+        return spans;
+    }
+
+    private static int sharedPrefix(String a, String b) {
+        int limit = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < limit && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        if (i > 0 && Character.isHighSurrogate(a.charAt(i - 1))) {
+            i--;
+        }
+        return i;
+    }
+}
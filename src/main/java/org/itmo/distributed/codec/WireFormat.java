@@ -0,0 +1,6 @@
+package org.itmo.distributed.codec;
+
+public enum WireFormat {
+    JSON,
+    BINARY
+}
@@ -0,0 +1,134 @@
+package org.itmo.distributed.codec;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+/**
+ * Writes messages in the configured {@link WireFormat} and reads both formats, choosing the decoder
+ * by the message content type. Binary payloads above the threshold are LZ4-compressed and marked
+ * with the {@code lz4} content encoding. Conversion times and body sizes are recorded as
+ * {@code text.serialization} and {@code text.bytes}.
+ */
+public class WireFormatMessageConverter implements MessageConverter {
+    public static final String BINARY_CONTENT_TYPE = "application/x-text-processing";
+    public static final String LZ4_ENCODING = "lz4";
+
+    private static final LZ4Factory LZ4 = LZ4Factory.fastestInstance();
+
+    private final MessageConverter jsonConverter;
+    private final WireFormat outboundFormat;
+    private final int compressionThreshold;
+    private final Timer jsonEncode;
+    private final Timer jsonDecode;
+    private final Timer binaryEncode;
+    private final Timer binaryDecode;
+    private final Counter bytesOut;
+    private final Counter bytesIn;
+
+    public WireFormatMessageConverter(MessageConverter jsonConverter, WireFormat outboundFormat, int compressionThreshold,
+                                      MeterRegistry meterRegistry) {
+        this.jsonConverter = jsonConverter;
+        this.outboundFormat = outboundFormat;
+        this.compressionThreshold = compressionThreshold;
+        this.jsonEncode = serializationTimer(meterRegistry, "encode", WireFormat.JSON);
+        this.jsonDecode = serializationTimer(meterRegistry, "decode", WireFormat.JSON);
+        this.binaryEncode = serializationTimer(meterRegistry, "encode", WireFormat.BINARY);
+        this.binaryDecode = serializationTimer(meterRegistry, "decode", WireFormat.BINARY);
+        this.bytesOut = Counter.builder("text.bytes").tag("direction", "out").baseUnit("bytes").register(meterRegistry);
+        this.bytesIn = Counter.builder("text.bytes").tag("direction", "in").baseUnit("bytes").register(meterRegistry);
+    }
+
+    @Override
+    public Message toMessage(Object object, MessageProperties messageProperties) throws MessageConversionException {
+        long startedAt = System.nanoTime();
+        Message message;
+        if (outboundFormat == WireFormat.JSON || !MessageCodec.supports(object)) {
+            message = jsonConverter.toMessage(object, messageProperties);
+            jsonEncode.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        } else {
+            message = encode(object, messageProperties);
+            binaryEncode.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+        bytesOut.increment(message.getBody().length);
+        return message;
+    }
+
+    @Override
+    public Object fromMessage(Message message) throws MessageConversionException {
+        bytesIn.increment(message.getBody().length);
+        long startedAt = System.nanoTime();
+        if (!BINARY_CONTENT_TYPE.equals(message.getMessageProperties().getContentType())) {
+            Object object = jsonConverter.fromMessage(message);
+            jsonDecode.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            return object;
+        }
+        Object object = decode(message);
+        binaryDecode.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        return object;
+    }
+
+    private Message encode(Object object, MessageProperties messageProperties) {
+        byte[] body = MessageCodec.encode(object);
+        messageProperties.setContentType(BINARY_CONTENT_TYPE);
+        if (compressionThreshold >= 0 && body.length >= compressionThreshold) {
+            body = compress(body);
+            messageProperties.setContentEncoding(LZ4_ENCODING);
+        }
+        messageProperties.setContentLength(body.length);
+        return new Message(body, messageProperties);
+    }
+
+    private static Object decode(Message message) {
+        MessageProperties properties = message.getMessageProperties();
+        byte[] body = message.getBody();
+        try {
+            if (LZ4_ENCODING.equals(properties.getContentEncoding())) {
+                body = decompress(body);
+            }
+            return MessageCodec.decode(body);
+        } catch (RuntimeException e) {
+            throw new MessageConversionException("Failed to decode binary message", e);
+        }
+    }
+
+    private static Timer serializationTimer(MeterRegistry meterRegistry, String operation, WireFormat format) {
+        return Timer.builder("text.serialization")
+                .tag("operation", operation)
+                .tag("format", format.name().toLowerCase())
+                .register(meterRegistry);
+    }
+
+    private static byte[] compress(byte[] body) {
+        LZ4Compressor compressor = LZ4.fastCompressor();
+        BinaryWriter header = new BinaryWriter(8);
+        header.writeVarInt(body.length);
+        int headerSize = header.size();
+
+        byte[] compressed = new byte[headerSize + compressor.maxCompressedLength(body.length)];
+        System.arraycopy(header.toByteArray(), 0, compressed, 0, headerSize);
+        int length = compressor.compress(body, 0, body.length, compressed, headerSize, compressed.length - headerSize);
+        return Arrays.copyOf(compressed, headerSize + length);
+    }
+
+    private static byte[] decompress(byte[] body) {
+        BinaryReader header = new BinaryReader(body);
+        int originalLength = header.readVarInt();
+        int headerSize = header.position();
+
+        LZ4SafeDecompressor decompressor = LZ4.safeDecompressor();
+        byte[] restored = new byte[originalLength];
+        decompressor.decompress(body, headerSize, body.length - headerSize, restored, 0, originalLength);
+        return restored;
+    }
+}
@@ -1,153 +1,575 @@
 package org.itmo.distributed.component;
 
-import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentSkipListMap;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.itmo.distributed.dto.Analysis;
+import org.itmo.distributed.dto.ChunkProgress;
+import org.itmo.distributed.dto.CountReply;
+import org.itmo.distributed.dto.JobOptions;
 import org.itmo.distributed.dto.ResultMessage;
+import org.itmo.distributed.dto.SentenceSpan;
+import org.itmo.distributed.dto.SentimentEngine;
+import org.itmo.distributed.dto.TextEdit;
+import org.itmo.distributed.dto.TopNMode;
+import org.itmo.distributed.service.CheckpointStore;
+import org.itmo.distributed.service.ExternalSentenceSorter;
+import org.itmo.distributed.service.ReportWriter;
 import org.itmo.distributed.service.SentenceSortService;
+import org.itmo.distributed.service.TextMaterializer;
+import org.itmo.distributed.service.topn.ApproximateTopN;
+import org.itmo.distributed.service.topn.ChunkBound;
+import org.itmo.distributed.service.topn.CombinedTopN;
+import org.itmo.distributed.service.topn.ExactTopN;
+import org.itmo.distributed.service.topn.TopNEngine;
+import org.itmo.distributed.service.topn.TopNRefinement;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 
 @Component
 @Profile("aggregator")
 public class Aggregator {
     private static final Logger logger = LoggerFactory.getLogger(Aggregator.class);
-    private static final Integer TOP_N = 5;
+    private static final int COMPLETED_JOBS_RETAINED = 1024;
 
     private final Map<String, AggregatedData> storage = new ConcurrentHashMap<>();
+    // guarded by itself together with the creation and removal of storage entries, so a result racing with
+    // its job's completion can never reopen the job
+    private final Set<String> completedJobs = Collections.newSetFromMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            if (size() <= COMPLETED_JOBS_RETAINED) {
+                return false;
+            }
+            if (checkpoints != null) {
+                checkpoints.forget(eldest.getKey());
+            }
+            return true;
+        }
+    });
     private final ObjectMapper objectMapper;
-    private long startTime = 0;
+    private final MessageTransport transport;
+    private final TopNEngine exactTopN = new ExactTopN();
+    private final CombinedTopN combinedTopN = new CombinedTopN();
+    private final TopNEngine approximateTopN;
+    private final ScheduledExecutorService refinementTimer = Executors.newSingleThreadScheduledExecutor();
+    private final ExecutorService finalizer;
+    private final FairScheduler resultScheduler;
+    private final Timer aggregation;
+    private final Timer finalization;
+    private final Counter aggregatedChunks;
+    private final Counter duplicateChunks;
+
+    @Value("${app.aggregator.combiner.refinement-timeout-ms}")
+    private long refinementTimeoutMs;
+
+    @Value("${app.aggregator.sentence-sort.external}")
+    private boolean externalSentenceSort;
+
+    @Value("${app.aggregator.sentence-sort.spill-dir}")
+    private Path sentenceSpillDir;
+
+    @Value("${app.aggregator.sentence-sort.segment-bytes}")
+    private long sentenceSegmentBytes;
 
-    public Aggregator(ObjectMapper objectMapper) {
+    @Value("${app.aggregator.report.pretty}")
+    private boolean prettyReport;
+
+    @Value("${app.aggregator.checkpoint.enabled}")
+    private boolean checkpointEnabled;
+
+    @Value("${app.aggregator.checkpoint.dir}")
+    private Path checkpointDir;
+
+    @Value("${app.aggregator.checkpoint.sync}")
+    private boolean checkpointSync;
+
+    private CheckpointStore checkpoints;
+
+    public Aggregator(ObjectMapper objectMapper,
+                      MessageTransport transport,
+                      @Value("${app.aggregator.top-n.sketch-width}") int sketchWidth,
+                      @Value("${app.aggregator.top-n.sketch-depth}") int sketchDepth,
+                      @Value("${app.aggregator.top-n.candidates}") int candidates,
+                      @Value("${app.aggregator.finalize-threads}") int finalizeThreads,
+                      @Value("${app.aggregator.concurrency}") int concurrency,
+                      MeterRegistry meterRegistry) {
         this.objectMapper = objectMapper;
+        this.transport = transport;
+        this.approximateTopN = new ApproximateTopN(sketchWidth, sketchDepth, candidates);
+        this.finalizer = Executors.newFixedThreadPool(finalizeThreads);
+        this.resultScheduler = new FairScheduler("aggregator", concurrency);
+        this.aggregation = Timer.builder("text.aggregation").register(meterRegistry);
+        this.finalization = Timer.builder("text.finalize").register(meterRegistry);
+        this.aggregatedChunks = Counter.builder("text.chunks").tag("stage", "aggregated").register(meterRegistry);
+        this.duplicateChunks = Counter.builder("text.chunks").tag("stage", "duplicate").register(meterRegistry);
         logger.info("Initialized aggregator with uuid: {}", UUID.randomUUID());
     }
 
-    @RabbitListener(queues = "${app.rabbitmq.queue.results}")
-    public void collectResult(ResultMessage result) {
-        logger.info("Got result for task with id: {}, chunk index: {} out of: {} chunks.", 
+    /**
+     * Rebuilds the state of unfinished jobs from their checkpoint logs before the listeners start, and
+     * remembers the finished ones so their redelivered results are dropped. Results that were logged are
+     * acknowledged, the rest are still in the durable result queue.
+     */
+    @PostConstruct
+    void recover() throws IOException {
+        if (!checkpointEnabled) {
+            return;
+        }
+        checkpoints = new CheckpointStore(checkpointDir, checkpointSync);
+        synchronized (completedJobs) {
+            completedJobs.addAll(checkpoints.completed());
+        }
+        checkpoints.replay(result -> accept(result, true));
+        if (!storage.isEmpty()) {
+            logger.info("Resumed {} unfinished jobs from checkpoints in {}", storage.size(), checkpointDir);
+        }
+    }
+
+    /**
+     * Stops applying results, lets reports being written finish and stops the refinement timer.
+     * Results not yet acknowledged are redelivered; jobs waiting for a refinement resume from their checkpoints.
+     */
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        resultScheduler.close();
+        refinementTimer.shutdownNow();
+        finalizer.shutdown();
+        if (!finalizer.awaitTermination(1, TimeUnit.MINUTES)) {
+            logger.warn("Reports still being written after a minute, abandoning them");
+        }
+    }
+
+    /**
+     * Prefetched results are applied by {@code app.aggregator.concurrency} threads taking one result per job
+     * in turn, so a small job is not queued behind the whole backlog of a large one. Acknowledged manually
+     * once the result is logged and applied, so a crash before that redelivers it. A result that fails again
+     * after a redelivery is not requeued but dead-lettered, leaving its job unfinished.
+     */
+    @RabbitListener(queues = "${app.rabbitmq.queue.results}", containerFactory = "aggregatorListenerContainerFactory",
+            ackMode = "MANUAL")
+    public void collectResult(ResultMessage result, Channel channel,
+                              @Header(AmqpHeaders.DELIVERY_TAG) long deliveryTag,
+                              @Header(AmqpHeaders.REDELIVERED) boolean redelivered) {
+        resultScheduler.submit(result.taskId(), () -> {
+            try {
+                if (collect(result)) {
+                    channel.basicAck(deliveryTag, false);
+                } else if (redelivered) {
+                    logger.error("Dead-lettering result for task with id: {}, chunk index: {} after repeated failures",
+                            result.taskId(), result.chunkIndex());
+                    channel.basicReject(deliveryTag, false);
+                } else {
+                    channel.basicNack(deliveryTag, false, true);
+                }
+            } catch (IOException e) {
+                logger.error("Error acknowledging result for task with id: {}, chunk index: {}",
+                        result.taskId(), result.chunkIndex(), e);
+            }
+        });
+    }
+
+    /**
+     * Logs and applies one result, returning {@code false} when it must be redelivered. Redeliveries and
+     * speculative duplicates of a chunk that was already counted, and results of finished jobs, are dropped
+     * and reported as collected; their progress is still published, since the first copy's may never have
+     * been (a chunk replayed from the checkpoint after a restart), and the producer ignores repeats.
+     */
+    boolean collect(ResultMessage result) {
+        logger.debug("Got result for task with id: {}, chunk index: {} out of: {} chunks.", 
                 result.taskId(), result.chunkIndex(), result.totalChunks());
 
-        if (startTime == 0) {
-            startTime = System.currentTimeMillis();
+        try {
+            if (!accept(result, false)) {
+                logger.info("Dropping duplicate result for task with id: {}, chunk index: {}", result.taskId(), result.chunkIndex());
+                duplicateChunks.increment();
+            }
+        } catch (RuntimeException e) {
+            logger.error("Error aggregating result for task with id: {}, chunk index: {}", result.taskId(), result.chunkIndex(), e);
+            return false;
         }
 
-        storage.compute(result.taskId(), (id, existingData) -> {
-            AggregatedData data = existingData;
-            if (data == null) {
-                data = new AggregatedData();
-                data.totalChunks = result.totalChunks();
+        transport.sendProgress(new ChunkProgress(result.taskId(), result.chunkIndex(), result.processingTimeMs()));
+        return true;
+    }
+
+    /**
+     * Applies a result, logging it first unless it is {@code replayed} from the log, and returns {@code false}
+     * when it is dropped as a duplicate. A job cannot complete while one of its chunks is claimed and not yet
+     * counted, so once the received bit is set the job's log is not deleted under the append.
+     */
+    private boolean accept(ResultMessage result, boolean replayed) {
+        long startedAt = System.nanoTime();
+        AggregatedData data;
+        synchronized (completedJobs) {
+            if (completedJobs.contains(result.taskId())) {
+                return false;
+            }
+            data = storage.computeIfAbsent(result.taskId(), id -> new AggregatedData(
+                    result.options(), result.jobStartedAt(), firstResultLeadMs(result), topNEngineFor(result.options()),
+                    sentenceSorterFor(result.options()), openReport(id)));
+        }
+        if (!data.markReceived(result.chunkIndex())) {
+            return false;
+        }
+        try {
+            if (checkpoints != null && !replayed) {
+                checkpoints.append(result);
+            }
+            // the steps that can fail come first and are rolled back with the bit, so a redelivery applies the
+            // result from scratch; a failed spill adds no run, and accumulators validate their settings up front
+            if (data.sentenceSorter != null) {
+                data.sentenceSorter.addRun(result.text(), result.sortedSentences());
             }
+            if (!result.wordFrequencies().isEmpty()) {
+                data.partialFrequencies
+                        .computeIfAbsent(Thread.currentThread().threadId(), threadId -> data.topNEngine.newAccumulator())
+                        .add(result.wordFrequencies());
+            }
+        } catch (RuntimeException e) {
+            data.unmarkReceived(result.chunkIndex());
+            throw e;
+        }
 
-            data.totalWords += result.wordCount();
-            data.totalPositive += result.positiveCount();
-            data.totalNegative += result.negativeCount();
+        if (!replayed) {
+            data.metrics.chunkProcessing.record(result.processingTimeMs(), TimeUnit.MILLISECONDS);
+        }
+        if (result.totalChunks() > 0) {
+            data.totalChunks = result.totalChunks();
+        }
 
-            data.textParts.put(result.chunkIndex(), result.modifiedText());
+        data.totalWords.add(result.wordCount());
+        data.totalPositive.add(result.positiveCount());
+        data.totalNegative.add(result.negativeCount());
+        if (result.sentimentAgreement() != null) {
+            data.lexiconPositive.add(result.sentimentAgreement().lexiconPositive());
+            data.lexiconNegative.add(result.sentimentAgreement().lexiconNegative());
+            data.sentimentAgreed.add(result.sentimentAgreement().agreed());
+            data.sentimentCompared.add(result.sentimentAgreement().compared());
+        }
 
+        if (data.sentenceSorter == null && !result.sortedSentences().isEmpty()) {
             data.sortedSentenceLists.add(result.sortedSentences());
+        }
 
-            final AggregatedData finalData = data;
-            result.wordFrequencies().forEach((word, count) ->
-                    finalData.wordFrequency.merge(word, count, Integer::sum)
-            );
+        if (data.options.requires(Analysis.NAME_REPLACEMENT)) {
+            data.textParts.put(result.chunkIndex(), new ChunkText(result.text(), result.nameEdits()));
+            drainText(result.taskId(), data);
+        }
+
+        if (result.text() != null && data.sentenceSorter == null && data.options.requires(Analysis.SENTENCE_SORT)) {
+            data.sentenceTexts.put(result.chunkIndex(), result.text());
+        }
+
+        if (result.residualBound() > 0) {
+            data.chunkBounds.put(result.chunkIndex(), new ChunkBound(result.residualBound(), result.countQueue()));
+        }
+
+        if (!replayed) {
+            long elapsed = System.nanoTime() - startedAt;
+            aggregation.record(elapsed, TimeUnit.NANOSECONDS);
+            data.metrics.aggregation.record(elapsed, TimeUnit.NANOSECONDS);
+            aggregatedChunks.increment();
+        }
 
-            int currentCount = data.processedChunks.incrementAndGet();
+        int currentCount = data.processedChunks.incrementAndGet();
+        int totalChunks = data.totalChunks;
 
-            if (currentCount == data.totalChunks) {
-                finalizeTask(id, data);
-                return null;
+        if (totalChunks > 0 && currentCount == totalChunks && data.finalized.compareAndSet(false, true)) {
+            completeTask(result.taskId(), data);
+        }
+        return true;
+    }
+
+    @RabbitListener(queues = "${app.rabbitmq.queue.counts}")
+    public void collectCountReply(CountReply reply) {
+        AggregatedData data = storage.get(reply.taskId());
+        if (data == null || data.refinement == null) {
+            logger.warn("Ignoring count reply for unknown refinement of task: {}", reply.taskId());
+            return;
+        }
+
+        sendCountRequests(data.refinement.onReply(reply));
+        if (data.refinement.isDone()) {
+            finishTask(reply.taskId(), data);
+        }
+    }
+
+    private TopNEngine topNEngineFor(JobOptions options) {
+        if (options.topNMode() == TopNMode.APPROXIMATE) {
+            return approximateTopN;
+        }
+        return options.usesCombiner() ? combinedTopN : exactTopN;
+    }
+
+    private ExternalSentenceSorter sentenceSorterFor(JobOptions options) {
+        if (!externalSentenceSort || !options.requires(Analysis.SENTENCE_SORT)) {
+            return null;
+        }
+        return new ExternalSentenceSorter(sentenceSpillDir, sentenceSegmentBytes);
+    }
+
+    private ReportWriter openReport(String taskId) {
+        try {
+            ReportWriter report = new ReportWriter(objectMapper, reportPath(taskId), prettyReport);
+            report.writeField("taskId", taskId);
+            return report;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Time from the job start until the first result left its worker, as far as it can be measured without
+     * comparing clocks: the producer's time to send the chunk plus the worker's time to process it.
+     */
+    private static long firstResultLeadMs(ResultMessage result) {
+        return Math.max(0, result.sentAt() - result.jobStartedAt()) + result.processingTimeMs();
+    }
+
+    static Path reportPath(String taskId) {
+        return Path.of(taskId + ".json");
+    }
+
+    /**
+     * Streams the longest contiguous prefix of received chunk texts into the report. Only one thread
+     * drains at a time; a thread that loses the race leaves its chunk to the current drainer, which
+     * re-checks after releasing the lock.
+     */
+    private void drainText(String taskId, AggregatedData data) {
+        while (data.textLock.tryLock()) {
+            try {
+                ChunkText part;
+                while ((part = data.textParts.remove(data.nextTextChunk)) != null) {
+                    if (part.text() != null) {
+                        data.report.appendText("modifiedText", TextMaterializer.applyEdits(part.text(), part.nameEdits()));
+                    }
+                    data.nextTextChunk++;
+                }
+            } catch (IOException e) {
+                logger.error("Error streaming text of task {} into report", taskId, e);
+            } finally {
+                data.textLock.unlock();
+            }
+            if (!data.textParts.containsKey(data.nextTextChunk)) {
+                return;
             }
+        }
+    }
 
-            return data;
-        });
+    private void completeTask(String taskId, AggregatedData data) {
+        if (data.topNEngine != combinedTopN || data.chunkBounds.isEmpty()) {
+            finishTask(taskId, data);
+            return;
+        }
+
+        TopNRefinement refinement = combinedTopN.refine(taskId, data.partialFrequencies.values(),
+                data.chunkBounds, data.totalChunks, data.options.topN());
+        data.refinement = refinement;
+
+        sendCountRequests(refinement.start());
+        if (refinement.isDone()) {
+            finishTask(taskId, data);
+            return;
+        }
+
+        refinementTimer.schedule(() -> {
+            if (refinement.expire()) {
+                logger.warn("Top-N refinement of task {} timed out, reporting inexact counts", taskId);
+                finishTask(taskId, data);
+            }
+        }, refinementTimeoutMs, TimeUnit.MILLISECONDS);
     }
 
-    private void finalizeTask(String taskId, AggregatedData data) {
-        long duration = System.currentTimeMillis() - startTime;
+    private void sendCountRequests(List<TopNRefinement.Addressed> requests) {
+        for (TopNRefinement.Addressed addressed : requests) {
+            transport.sendCountRequest(addressed.queue(), addressed.request());
+        }
+    }
 
-        StringBuilder modifiedTextBuilder = new StringBuilder();
-        for (int i = 0; i < data.totalChunks; i++) {
-            String part = data.textParts.get(i);
-            if (part != null) {
-                modifiedTextBuilder.append(part).append(" ");
+    /**
+     * Finalization of a large job runs off the listener threads so that results of other jobs
+     * sharing the queue keep being aggregated meanwhile.
+     */
+    private void finishTask(String taskId, AggregatedData data) {
+        if (data.reported.compareAndSet(false, true)) {
+            synchronized (completedJobs) {
+                completedJobs.add(taskId);
+                storage.remove(taskId);
             }
+            finalizer.execute(() -> finalizeTask(taskId, data));
         }
+    }
 
-        String modifiedText = modifiedTextBuilder.toString().trim();
+    private void finalizeTask(String taskId, AggregatedData data) {
+        JobOptions options = data.options;
+        long startedAt = System.nanoTime();
 
-        List<String> globalSortedSentences = SentenceSortService.mergeSortedSentences(data.sortedSentenceLists);
+        try (ReportWriter report = data.report) {
+            drainText(taskId, data);
+            report.writeField("analyses", options.analyses());
+            report.writeField("totalWords", options.requires(Analysis.WORD_COUNT) ? data.totalWords.sum() : null);
+            if (options.requires(Analysis.NAME_REPLACEMENT)) {
+                report.writeField("nameEngine", options.nameEngine());
+            }
+            if (options.requires(Analysis.SENTIMENT)) {
+                report.writeField("sentimentEngine", options.sentimentEngine());
+                report.writeField("sentiment", new SentimentReport(data.totalPositive.sum(), data.totalNegative.sum()));
+                if (options.sentimentEngine() == SentimentEngine.AGREEMENT) {
+                    long compared = data.sentimentCompared.sum();
+                    report.writeField("sentimentAgreement", new AgreementReport(
+                            data.lexiconPositive.sum(), data.lexiconNegative.sum(), data.sentimentAgreed.sum(), compared,
+                            compared > 0 ? (double) data.sentimentAgreed.sum() / compared : 0));
+                }
+            }
 
-        Map<String, Integer> topNWords = getTopNWords(data.wordFrequency);
+            if (options.requires(Analysis.TOP_N)) {
+                report.writeField("topNMode", options.topNMode());
+                report.writeField("topNExact", data.refinement != null ? data.refinement.isExact() : null);
+                report.writeField("topNWords", data.refinement != null
+                        ? data.refinement.result()
+                        : data.topNEngine.topN(data.partialFrequencies.values(), options.topN()));
+            }
 
-        FinalReport report = new FinalReport(
-                taskId,
-                duration,
-                data.totalWords,
-                new SentimentReport(data.totalPositive, data.totalNegative),
-                topNWords,
-                modifiedText,
-                globalSortedSentences
-        );
+            if (data.sentenceSorter != null) {
+                report.writeStrings("sortedSentences", data.sentenceSorter.merge());
+            } else if (options.requires(Analysis.SENTENCE_SORT)) {
+                List<SentenceSpan> spans = SentenceSortService.mergeSortedSentences(new ArrayList<>(data.sortedSentenceLists));
+                report.writeStrings("sortedSentences", () -> spans.stream()
+                        .map(span -> TextMaterializer.sentence(data.sentenceTexts.get(span.chunkIndex()), span))
+                        .iterator());
+            }
 
-        try {
-            File outputFile = new File(taskId + ".json");
-            objectMapper.writerWithDefaultPrettyPrinter().writeValue(outputFile, report);
-            logger.info("Report saved to: {}", outputFile.getAbsolutePath());
+            long finishedAt = System.currentTimeMillis();
+            long aggregationTimeMs = finishedAt - data.firstResultAt;
+            report.writeField("startedAt", data.jobStartedAt);
+            report.writeField("finishedAt", finishedAt);
+            report.writeField("processingTimeMs", data.firstResultLeadMs + aggregationTimeMs);
+            report.writeField("firstResultLeadMs", data.firstResultLeadMs);
+            report.writeField("aggregationTimeMs", aggregationTimeMs);
+            report.writeField("metrics", data.metrics.summarize());
+            report.commit();
+            logger.info("Report saved to: {}", report.target().toAbsolutePath());
+            if (checkpoints != null) {
+                checkpoints.complete(taskId);
+            }
 
         } catch (Exception e) {
             logger.error("Error generating JSON report", e);
+        } finally {
+            if (data.sentenceSorter != null) {
+                data.sentenceSorter.close();
+            }
+            finalization.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
         }
-
-        startTime = 0;
-    }
-
-    private static Map<String, Integer> getTopNWords(Map<String, Integer> wordFrequencies) {
-        return wordFrequencies.entrySet().stream()
-                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
-                .limit(TOP_N)
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        Map.Entry::getValue,
-                        (e1, e2) -> e1,
-                        LinkedHashMap::new
-                ));
     }
 
+    /**
+     * Per-job state updated without a job-wide lock: totals are {@link LongAdder}s and word frequencies
+     * are accumulated in one top-N accumulator per listener thread, combined only when the job is finalized.
+     * {@code jobStartedAt} comes from the producer's clock, {@code firstResultAt} from the aggregator's, so
+     * they are never subtracted from each other: the job time is {@code firstResultLeadMs}, measured by producer
+     * and worker, plus the aggregator's time from the first result to the report. It leaves out the broker
+     * transit of the first chunk and its result.
+     */
     private static class AggregatedData {
-        int totalChunks;
-        long totalWords = 0;
-        long totalPositive = 0;
-        long totalNegative = 0;
-        final Map<String, Integer> wordFrequency = new ConcurrentHashMap<>();
-        final Map<Integer, String> textParts = new ConcurrentSkipListMap<>();
-        final List<List<String>> sortedSentenceLists = new CopyOnWriteArrayList<>();
+        final JobOptions options;
+        final long jobStartedAt;
+        final long firstResultLeadMs;
+        final long firstResultAt = System.currentTimeMillis();
+        final JobMetrics metrics = new JobMetrics();
+        final TopNEngine topNEngine;
+        final ExternalSentenceSorter sentenceSorter;
+        final ReportWriter report;
+        volatile int totalChunks;
+        final LongAdder totalWords = new LongAdder();
+        final LongAdder totalPositive = new LongAdder();
+        final LongAdder totalNegative = new LongAdder();
+        final LongAdder lexiconPositive = new LongAdder();
+        final LongAdder lexiconNegative = new LongAdder();
+        final LongAdder sentimentAgreed = new LongAdder();
+        final LongAdder sentimentCompared = new LongAdder();
+        final Map<Long, TopNEngine.Accumulator> partialFrequencies = new ConcurrentHashMap<>();
+        final Map<Integer, ChunkText> textParts = new ConcurrentHashMap<>();
+        final Lock textLock = new ReentrantLock();
+        int nextTextChunk = 0;
+        final Map<Integer, String> sentenceTexts = new ConcurrentHashMap<>();
+        final Queue<List<SentenceSpan>> sortedSentenceLists = new ConcurrentLinkedQueue<>();
+        final BitSet receivedChunks = new BitSet();
         final AtomicInteger processedChunks = new AtomicInteger(0);
+        final Map<Integer, ChunkBound> chunkBounds = new ConcurrentHashMap<>();
+        final AtomicBoolean finalized = new AtomicBoolean(false);
+        final AtomicBoolean reported = new AtomicBoolean(false);
+        volatile TopNRefinement refinement;
+
+        AggregatedData(JobOptions options, long jobStartedAt, long firstResultLeadMs, TopNEngine topNEngine,
+                       ExternalSentenceSorter sentenceSorter, ReportWriter report) {
+            this.options = options;
+            this.jobStartedAt = jobStartedAt;
+            this.firstResultLeadMs = firstResultLeadMs;
+            this.topNEngine = topNEngine;
+            this.sentenceSorter = sentenceSorter;
+            this.report = report;
+        }
+
+        boolean markReceived(int chunkIndex) {
+            synchronized (receivedChunks) {
+                if (receivedChunks.get(chunkIndex)) {
+                    return false;
+                }
+                receivedChunks.set(chunkIndex);
+                return true;
+            }
+        }
+
+        void unmarkReceived(int chunkIndex) {
+            synchronized (receivedChunks) {
+                receivedChunks.clear(chunkIndex);
+            }
+        }
     }
 
-    private record FinalReport(
-            String taskId,
-            long processingTimeMs,
-            long totalWords,
-            SentimentReport sentiment,
-            Map<String, Integer> topNWords,
-            String modifiedText,
-            List<String> sortedSentences
-    ) {
+    private record ChunkText(String text, List<TextEdit> nameEdits) {
     }
 
     private record SentimentReport(long positiveSentences, long negativeSentences) {
     }
+
+    private record AgreementReport(long lexiconPositiveSentences, long lexiconNegativeSentences,
+                                   long agreedSentences, long comparedSentences, double agreementRate) {
+    }
 }
@@ -0,0 +1,58 @@
+package org.itmo.distributed.component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Credit-based flow control for one job: a chunk may only be published while fewer than
+ * {@code maxOutstanding} chunks are still unreported by the aggregator. Credits are returned by the
+ * aggregator's progress events, so the broker never holds more than the window, however large the corpus.
+ */
+class ChunkCredits {
+    private static final Logger logger = LoggerFactory.getLogger(ChunkCredits.class);
+    private static final long STALL_WARNING_MS = 10_000;
+
+    private final int maxOutstanding;
+    private final Semaphore credits;
+    private final Set<Integer> outstanding = ConcurrentHashMap.newKeySet();
+    private long stalledMs = 0;
+
+    ChunkCredits(int maxOutstanding) {
+        this.maxOutstanding = maxOutstanding;
+        this.credits = new Semaphore(maxOutstanding);
+    }
+
+    void acquire(int chunkIndex) {
+        long start = System.currentTimeMillis();
+        try {
+            while (!credits.tryAcquire(STALL_WARNING_MS, TimeUnit.MILLISECONDS)) {
+                logger.warn("Chunk {} has been waiting {}ms for credit, {} chunks outstanding",
+                        chunkIndex, System.currentTimeMillis() - start, outstanding.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for credit for chunk " + chunkIndex, e);
+        }
+        stalledMs += System.currentTimeMillis() - start;
+        outstanding.add(chunkIndex);
+    }
+
+    void release(int chunkIndex) {
+        if (outstanding.remove(chunkIndex)) {
+            credits.release();
+        }
+    }
+
+    long stalledMs() {
+        return stalledMs;
+    }
+
+    String describe() {
+        return "at most " + maxOutstanding + " outstanding chunks";
+    }
+}
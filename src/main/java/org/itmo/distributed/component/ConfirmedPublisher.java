@@ -0,0 +1,106 @@
+package org.itmo.distributed.component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pipelined publishing with broker confirms: up to {@code max-in-flight} messages may be awaiting their
+ * confirm at once, and a message that is nacked, returned as unroutable or not confirmed in time is
+ * re-published with a backoff until {@code max-attempts} is reached.
+ */
+@Component
+@Profile("!embedded")
+public class ConfirmedPublisher {
+    private static final Logger logger = LoggerFactory.getLogger(ConfirmedPublisher.class);
+
+    private final RabbitTemplate rabbitTemplate;
+    private final int maxInFlight;
+    private final Semaphore window;
+    private final ScheduledExecutorService retries = Executors.newSingleThreadScheduledExecutor();
+    private final AtomicLong failed = new AtomicLong();
+
+    @Value("${app.rabbitmq.confirms.max-attempts}")
+    private int maxAttempts;
+
+    @Value("${app.rabbitmq.confirms.timeout-ms}")
+    private long confirmTimeoutMs;
+
+    @Value("${app.rabbitmq.confirms.retry-backoff-ms}")
+    private long retryBackoffMs;
+
+    public ConfirmedPublisher(RabbitTemplate rabbitTemplate,
+                              @Value("${app.rabbitmq.confirms.max-in-flight}") int maxInFlight) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.maxInFlight = maxInFlight;
+        this.window = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Publishes once a slot in the in-flight window is free. The returned future completes when the
+     * broker has confirmed the message, or exceptionally when every attempt failed.
+     */
+    public CompletableFuture<Void> publish(String exchange, String routingKey, Object message) {
+        window.acquireUninterruptibly();
+        CompletableFuture<Void> confirmed = new CompletableFuture<>();
+        confirmed.whenComplete((ignored, error) -> window.release());
+        send(exchange, routingKey, message, 1, confirmed);
+        return confirmed;
+    }
+
+    /**
+     * Waits until every message published so far is confirmed or has failed, returning the number of
+     * messages that could not be delivered since the publisher was created.
+     */
+    public long flush() {
+        window.acquireUninterruptibly(maxInFlight);
+        window.release(maxInFlight);
+        return failed.get();
+    }
+
+    private void send(String exchange, String routingKey, Object message, int attempt, CompletableFuture<Void> confirmed) {
+        CorrelationData correlation = new CorrelationData();
+        try {
+            rabbitTemplate.convertAndSend(exchange, routingKey, message, correlation);
+        } catch (AmqpException e) {
+            retry(exchange, routingKey, message, attempt, confirmed, e.getMessage());
+            return;
+        }
+
+        correlation.getFuture().orTimeout(confirmTimeoutMs, TimeUnit.MILLISECONDS).whenComplete((confirm, error) -> {
+            if (error == null && confirm.isAck() && correlation.getReturned() == null) {
+                confirmed.complete(null);
+                return;
+            }
+            String reason = error != null ? error.toString()
+                    : correlation.getReturned() != null ? correlation.getReturned().getReplyText()
+                    : confirm.getReason();
+            retry(exchange, routingKey, message, attempt, confirmed, reason);
+        });
+    }
+
+    private void retry(String exchange, String routingKey, Object message, int attempt,
+                       CompletableFuture<Void> confirmed, String reason) {
+        if (attempt >= maxAttempts) {
+            failed.incrementAndGet();
+            logger.error("Giving up publishing to {}/{} after {} attempts: {}", exchange, routingKey, attempt, reason);
+            confirmed.completeExceptionally(new AmqpException("Message was not confirmed: " + reason));
+            return;
+        }
+        logger.warn("Publish attempt {} to {}/{} failed ({}), retrying", attempt, exchange, routingKey, reason);
+        retries.schedule(() -> send(exchange, routingKey, message, attempt + 1, confirmed),
+                retryBackoffMs * attempt, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,254 @@
+package org.itmo.distributed.component;
+
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import org.itmo.distributed.dto.ChunkProgress;
+import org.itmo.distributed.dto.CountReply;
+import org.itmo.distributed.dto.CountRequest;
+import org.itmo.distributed.dto.ResultMessage;
+import org.itmo.distributed.dto.TaskMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Broker-free transport for running producer, workers and aggregator in one process. Tasks and results
+ * pass through in-memory queues, encoded with the configured {@link MessageConverter} like on the wire,
+ * and are consumed by {@code workers} task threads sharing the {@link Worker} and by
+ * {@code app.aggregator.concurrency} result threads. As with the broker, a task or result whose
+ * consumer fails is put back on its queue once and dropped when it fails again; a dropped task is still
+ * reported as progress, so the producer does not wait for it. Stage latencies are recorded for the
+ * {@link ScalabilitySweep}.
+ */
+@Component
+@Profile("embedded")
+public class EmbeddedTransport implements MessageTransport, SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddedTransport.class);
+
+    private final MessageConverter messageConverter;
+    private final ObjectProvider<Worker> worker;
+    private final ObjectProvider<Aggregator> aggregator;
+    private final int aggregatorConcurrency;
+    private final BlockingQueue<Envelope> tasks = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Envelope> results = new LinkedBlockingQueue<>();
+    private final Map<String, Consumer<ChunkProgress>> progressSubscribers = new ConcurrentHashMap<>();
+    private final ExecutorService progressDispatcher = Executors.newSingleThreadExecutor();
+    private final ExecutorService countDispatcher = Executors.newSingleThreadExecutor();
+    private final AtomicReference<StageTimings> timings = new AtomicReference<>(new StageTimings());
+    private volatile int workers;
+    private ExecutorService workerThreads;
+    private ExecutorService aggregatorThreads;
+
+    public EmbeddedTransport(MessageConverter messageConverter,
+                             ObjectProvider<Worker> worker,
+                             ObjectProvider<Aggregator> aggregator,
+                             @Value("${app.embedded.workers}") int workers,
+                             @Value("${app.aggregator.concurrency}") int aggregatorConcurrency) {
+        this.messageConverter = messageConverter;
+        this.worker = worker;
+        this.aggregator = aggregator;
+        this.workers = workers;
+        this.aggregatorConcurrency = aggregatorConcurrency;
+    }
+
+    @Override
+    public CompletableFuture<Void> sendTask(TaskMessage task) {
+        tasks.add(encode(task));
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> sendResult(ResultMessage result) {
+        results.add(encode(result));
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public void sendProgress(ChunkProgress progress) {
+        Envelope envelope = encode(progress);
+        progressDispatcher.execute(() -> {
+            ChunkProgress delivered = (ChunkProgress) decode(envelope);
+            Consumer<ChunkProgress> subscriber = progressSubscribers.get(delivered.taskId());
+            if (subscriber != null) {
+                subscriber.accept(delivered);
+            }
+        });
+    }
+
+    @Override
+    public void sendCountRequest(String queue, CountRequest request) {
+        Envelope envelope = encode(request);
+        // every task thread shares the one Worker and its combiner, so the queue is always its own
+        countDispatcher.execute(() -> worker.getObject().answerCountRequest((CountRequest) decode(envelope)));
+    }
+
+    @Override
+    public void sendCountReply(CountReply reply) {
+        Envelope envelope = encode(reply);
+        countDispatcher.execute(() -> aggregator.getObject().collectCountReply((CountReply) decode(envelope)));
+    }
+
+    @Override
+    public long flush() {
+        return 0;
+    }
+
+    @Override
+    public Subscription subscribeProgress(String taskId, Consumer<ChunkProgress> consumer) {
+        progressSubscribers.put(taskId, consumer);
+        return () -> progressSubscribers.remove(taskId);
+    }
+
+    /**
+     * Replaces the task consumers with {@code workers} new ones. Meant to be called between jobs.
+     */
+    public synchronized void setWorkers(int workers) {
+        this.workers = workers;
+        if (workerThreads != null) {
+            stopThreads(workerThreads);
+            workerThreads = startThreads("embedded-worker-", workers, this::consumeTasks);
+        }
+    }
+
+    /**
+     * Returns the stage latencies recorded since the previous call.
+     */
+    StageTimings takeTimings() {
+        return timings.getAndSet(new StageTimings());
+    }
+
+    @Override
+    public synchronized void start() {
+        aggregatorThreads = startThreads("embedded-aggregator-", aggregatorConcurrency, this::consumeResults);
+        workerThreads = startThreads("embedded-worker-", workers, this::consumeTasks);
+        logger.info("Started embedded transport with {} workers and {} aggregator threads", workers, aggregatorConcurrency);
+    }
+
+    @Override
+    public synchronized void stop() {
+        stopThreads(workerThreads);
+        stopThreads(aggregatorThreads);
+        workerThreads = null;
+        aggregatorThreads = null;
+        progressDispatcher.shutdownNow();
+        countDispatcher.shutdownNow();
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return workerThreads != null;
+    }
+
+    private void consumeTasks() {
+        Worker consumer = worker.getObject();
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Envelope envelope = tasks.take();
+                StageTimings stages = timings.get();
+                stages.record(StageTimings.Stage.TASK_QUEUE, System.nanoTime() - envelope.enqueuedAt());
+                TaskMessage task = (TaskMessage) decode(envelope);
+
+                long startedAt = System.nanoTime();
+                try {
+                    sendResult(consumer.process(task));
+                } catch (RuntimeException e) {
+                    if (envelope.redelivered()) {
+                        logger.error("Dropping task with id: {}, chunk index: {} after repeated failures",
+                                task.id(), task.chunkIndex(), e);
+                        // returns the chunk's credit; the job stays unfinished as its result never arrives
+                        sendProgress(new ChunkProgress(task.id(), task.chunkIndex(), 0));
+                    } else {
+                        logger.error("Error processing task with id: {}, chunk index: {}, requeueing", task.id(), task.chunkIndex(), e);
+                        tasks.add(new Envelope(envelope.message(), System.nanoTime(), true));
+                    }
+                    continue;
+                }
+                stages.record(StageTimings.Stage.PROCESSING, System.nanoTime() - startedAt);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void consumeResults() {
+        Aggregator consumer = aggregator.getObject();
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Envelope envelope = results.take();
+                StageTimings stages = timings.get();
+                stages.record(StageTimings.Stage.RESULT_QUEUE, System.nanoTime() - envelope.enqueuedAt());
+                ResultMessage result = (ResultMessage) decode(envelope);
+
+                long startedAt = System.nanoTime();
+                if (!consumer.collect(result)) {
+                    if (envelope.redelivered()) {
+                        logger.error("Dropping result for task with id: {}, chunk index: {} after repeated failures",
+                                result.taskId(), result.chunkIndex());
+                    } else {
+                        results.add(new Envelope(envelope.message(), System.nanoTime(), true));
+                    }
+                    continue;
+                }
+                stages.record(StageTimings.Stage.AGGREGATION, System.nanoTime() - startedAt);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Envelope encode(Object payload) {
+        long startedAt = System.nanoTime();
+        Message message = messageConverter.toMessage(payload, new MessageProperties());
+        long enqueuedAt = System.nanoTime();
+        timings.get().record(StageTimings.Stage.SERIALIZATION, enqueuedAt - startedAt);
+        return new Envelope(message, enqueuedAt, false);
+    }
+
+    private Object decode(Envelope envelope) {
+        long startedAt = System.nanoTime();
+        Object payload = messageConverter.fromMessage(envelope.message());
+        timings.get().record(StageTimings.Stage.SERIALIZATION, System.nanoTime() - startedAt);
+        return payload;
+    }
+
+    private static ExecutorService startThreads(String prefix, int count, Runnable consumer) {
+        ExecutorService threads = Executors.newFixedThreadPool(count, Thread.ofPlatform().name(prefix, 0).factory());
+        for (int i = 0; i < count; i++) {
+            threads.execute(consumer);
+        }
+        return threads;
+    }
+
+    private static void stopThreads(ExecutorService threads) {
+        if (threads == null) {
+            return;
+        }
+        threads.shutdownNow();
+        try {
+            if (!threads.awaitTermination(1, TimeUnit.MINUTES)) {
+                logger.warn("Embedded consumers did not stop within a minute");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Envelope(Message message, long enqueuedAt, boolean redelivered) {
+    }
+}
@@ -0,0 +1,104 @@
+package org.itmo.distributed.component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs submitted work on a fixed set of threads, taking one item per job in turn, so a job with a long
+ * backlog cannot hold back the items of jobs submitted after it. Items of one job run in submission
+ * order, but several of them may run concurrently on different threads.
+ */
+class FairScheduler implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(FairScheduler.class);
+
+    private final Map<String, Queue<Runnable>> pending = new HashMap<>();
+    private final Deque<String> turns = new ArrayDeque<>();
+    private final ExecutorService threads;
+    private boolean closed = false;
+
+    FairScheduler(String name, int threadCount) {
+        this.threads = Executors.newFixedThreadPool(threadCount, Thread.ofPlatform().name(name + "-", 0).factory());
+        for (int i = 0; i < threadCount; i++) {
+            threads.execute(this::drain);
+        }
+    }
+
+    /**
+     * Queues the work behind the other items of its job; after {@link #close()} it is dropped.
+     */
+    synchronized void submit(String jobId, Runnable work) {
+        if (closed) {
+            return;
+        }
+        Queue<Runnable> queue = pending.get(jobId);
+        if (queue == null) {
+            queue = new ArrayDeque<>();
+            pending.put(jobId, queue);
+            turns.addLast(jobId);
+            notify();
+        }
+        queue.add(work);
+    }
+
+    private synchronized Runnable next() throws InterruptedException {
+        while (turns.isEmpty() && !closed) {
+            wait();
+        }
+        if (closed) {
+            return null;
+        }
+        String jobId = turns.removeFirst();
+        Queue<Runnable> queue = pending.get(jobId);
+        Runnable work = queue.remove();
+        if (queue.isEmpty()) {
+            pending.remove(jobId);
+        } else {
+            turns.addLast(jobId);
+        }
+        return work;
+    }
+
+    private void drain() {
+        try {
+            Runnable work;
+            while ((work = next()) != null) {
+                try {
+                    work.run();
+                } catch (RuntimeException e) {
+                    logger.error("Scheduled work failed", e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Lets the threads finish the items they are running, without interrupting them, and drops the
+     * items still pending.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        threads.shutdown();
+        try {
+            if (!threads.awaitTermination(1, TimeUnit.MINUTES)) {
+                logger.warn("Scheduler threads did not stop within a minute");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
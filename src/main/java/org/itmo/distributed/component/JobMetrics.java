@@ -0,0 +1,48 @@
+package org.itmo.distributed.component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Latency histograms of one job for its report. They live in a registry of their own, so job ids never
+ * become tags of the exported meters, and do not decay, so the percentiles cover the whole job.
+ */
+class JobMetrics {
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    final Timer chunkProcessing = timer("chunkProcessing");
+    final Timer aggregation = timer("aggregation");
+
+    Map<String, Summary> summarize() {
+        Map<String, Summary> summaries = new LinkedHashMap<>();
+        for (Timer timer : new Timer[]{chunkProcessing, aggregation}) {
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            ValueAtPercentile[] percentiles = snapshot.percentileValues();
+            summaries.put(timer.getId().getName(), new Summary(snapshot.count(),
+                    snapshot.mean(TimeUnit.MILLISECONDS), percentiles[0].value(TimeUnit.MILLISECONDS),
+                    percentiles[1].value(TimeUnit.MILLISECONDS), percentiles[2].value(TimeUnit.MILLISECONDS),
+                    snapshot.max(TimeUnit.MILLISECONDS)));
+        }
+        return summaries;
+    }
+
+    private Timer timer(String name) {
+        return Timer.builder(name)
+                .publishPercentiles(PERCENTILES)
+                .distributionStatisticExpiry(Duration.ofDays(1))
+                .distributionStatisticBufferLength(1)
+                .register(registry);
+    }
+
+    record Summary(long count, double meanMs, double p50Ms, double p95Ms, double p99Ms, double maxMs) {
+    }
+}
@@ -0,0 +1,49 @@
+package org.itmo.distributed.component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import org.itmo.distributed.dto.ChunkProgress;
+import org.itmo.distributed.dto.CountReply;
+import org.itmo.distributed.dto.CountRequest;
+import org.itmo.distributed.dto.ResultMessage;
+import org.itmo.distributed.dto.TaskMessage;
+
+/**
+ * Outbound side of the producer → workers → aggregator flow. {@link RabbitTransport} publishes through the
+ * broker; {@link EmbeddedTransport} hands the same messages to in-process consumers.
+ */
+public interface MessageTransport {
+
+    /**
+     * Completes once the task is safely handed over, exceptionally when it could not be delivered.
+     */
+    CompletableFuture<Void> sendTask(TaskMessage task);
+
+    /**
+     * Completes once the result is safely handed over, exceptionally when it could not be delivered.
+     */
+    CompletableFuture<Void> sendResult(ResultMessage result);
+
+    void sendProgress(ChunkProgress progress);
+
+    void sendCountRequest(String queue, CountRequest request);
+
+    void sendCountReply(CountReply reply);
+
+    /**
+     * Waits until every task and result sent so far is delivered or has failed, returning the number of
+     * messages that could not be delivered.
+     */
+    long flush();
+
+    /**
+     * Delivers the progress events of one job, one at a time, until the subscription is closed.
+     */
+    Subscription subscribeProgress(String taskId, Consumer<ChunkProgress> consumer);
+
+    interface Subscription extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
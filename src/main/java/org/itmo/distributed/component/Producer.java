@@ -1,142 +1,305 @@
 package org.itmo.distributed.component;
 
-import edu.stanford.nlp.ling.CoreAnnotations;
-import edu.stanford.nlp.pipeline.Annotation;
-import edu.stanford.nlp.pipeline.StanfordCoreNLP;
-import edu.stanford.nlp.util.CoreMap;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.itmo.distributed.dto.JobOptions;
 import org.itmo.distributed.dto.TaskMessage;
+import org.itmo.distributed.service.CorpusReader;
+import org.itmo.distributed.service.Sentence;
+import org.itmo.distributed.service.SentenceSplitter;
+import org.itmo.distributed.service.TextSegment;
+import org.itmo.distributed.service.chunking.ChunkingStrategy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
-import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
-import java.util.Properties;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Stream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Component
 @Profile("producer")
 public class Producer implements CommandLineRunner {
     private static final Logger logger = LoggerFactory.getLogger(Producer.class);
-    private static final int SENTENCES_PER_TASK = 10;
 
-    private final RabbitTemplate rabbitTemplate;
     private final ApplicationArguments applicationArguments;
-    private final StanfordCoreNLP pipeline;
+    private final ChunkingStrategy chunkingStrategy;
+    private final JobOptions jobOptions;
+    private final MessageTransport transport;
+    private final SentenceSplitter splitter = new SentenceSplitter();
+    private final Timer split;
+    private final Timer publish;
+    private final Timer chunkLatency;
+    private final Counter sentChunks;
+    private final AtomicInteger inFlightChunks;
 
-    @Value("${app.rabbitmq.exchange}")
-    private String exchange;
-    
-    @Value("${app.rabbitmq.routing-key.tasks}")
-    private String routingKey;
+    @Value("${app.producer.window-bytes}")
+    private int windowBytes;
 
-    public Producer(RabbitTemplate rabbitTemplate, ApplicationArguments applicationArguments) {
-        this.rabbitTemplate = rabbitTemplate;
-        this.applicationArguments = applicationArguments;
+    @Value("${app.producer.split-threads:0}")
+    private int splitThreads;
+
+    @Value("${app.producer.flow-control.max-outstanding-chunks}")
+    private int maxOutstandingChunks;
+
+    @Value("${app.producer.speculation.enabled}")
+    private boolean speculationEnabled;
+
+    @Value("${app.producer.speculation.percentile}")
+    private double speculationPercentile;
+
+    @Value("${app.producer.speculation.multiplier}")
+    private double speculationMultiplier;
+
+    @Value("${app.producer.speculation.min-samples}")
+    private int speculationMinSamples;
 
-        Properties props = new Properties();
-        props.setProperty("annotators", "tokenize, ssplit");
-        this.pipeline = new StanfordCoreNLP(props);
+    @Value("${app.producer.speculation.check-interval-ms}")
+    private long speculationCheckIntervalMs;
 
+    @Value("${app.producer.speculation.await-timeout-ms}")
+    private long speculationAwaitTimeoutMs;
+
+    public Producer(ApplicationArguments applicationArguments,
+                    ChunkingStrategy chunkingStrategy,
+                    JobOptions jobOptions,
+                    MessageTransport transport,
+                    MeterRegistry meterRegistry) {
+        this.applicationArguments = applicationArguments;
+        this.chunkingStrategy = chunkingStrategy;
+        this.jobOptions = jobOptions;
+        this.transport = transport;
+        this.split = Timer.builder("text.split").register(meterRegistry);
+        this.publish = Timer.builder("text.publish").register(meterRegistry);
+        // from publishing a chunk until its progress message arrives, both read on the producer's clock
+        this.chunkLatency = Timer.builder("text.chunk.latency").register(meterRegistry);
+        this.sentChunks = Counter.builder("text.chunks").tag("stage", "sent").register(meterRegistry);
+        // chunks published and not yet reported as aggregated, counted while the producer follows their job
+        this.inFlightChunks = meterRegistry.gauge("text.chunks.in.flight", new AtomicInteger());
         logger.info("Initialized producer with uuid: {}", UUID.randomUUID());
     }
 
     @Override
     public void run(String... args) throws Exception {
+        if (applicationArguments.containsOption(ScalabilitySweep.OPTION)) {
+            // the sweep drives the producer itself, once per corpus size and worker count
+            return;
+        }
+
         List<String> sourceArgs = applicationArguments.getOptionValues("source");
 
-        String fullText;
-        
-        if (sourceArgs != null && !sourceArgs.isEmpty()) {
-            String sourcePath = sourceArgs.getFirst();
-            logger.info("Reading text from: {}", sourcePath);
-            fullText = readText(sourcePath);
-        } else {
+        if (sourceArgs == null || sourceArgs.isEmpty()) {
             logger.warn("No source provided (use --source=<path>).");
             return;
         }
 
-        if (fullText.isEmpty()) {
-            logger.warn("Text is empty. Exiting.");
-            return;
-        }
+        produce(Paths.get(sourceArgs.getFirst()));
+    }
 
-        logger.info("Splitting text into sentences...");
-        List<String> sentences = splitIntoSentences(fullText);
-        logger.info("Found {} sentences.", sentences.size());
-
-        List<String> chunks = new ArrayList<>();
-        StringBuilder currentChunk = new StringBuilder();
-        
-        for (int i = 0; i < sentences.size(); i++) {
-            currentChunk.append(sentences.get(i)).append(" ");
-            
-            if ((i + 1) % SENTENCES_PER_TASK == 0) {
-                chunks.add(currentChunk.toString().trim());
-                currentChunk.setLength(0);
-            }
-        }
+    /**
+     * Streams one corpus as a new job and returns its task id once every chunk is sent, or {@code null}
+     * when the corpus is empty.
+     */
+    public String produce(Path source) throws Exception {
+        logger.info("Reading text from: {}", source);
 
-        if (!currentChunk.isEmpty()) {
-            chunks.add(currentChunk.toString().trim());
-        }
+        CorpusReader reader = new CorpusReader(windowBytes);
+        List<Path> files = reader.listFiles(source);
 
         String taskId = UUID.randomUUID().toString();
-        int total = chunks.size();
-        
         long startTime = System.currentTimeMillis();
-        logger.info("Sending {} tasks (chunks of ~{} sentences) for TaskID: {}", total, SENTENCES_PER_TASK, taskId);
+        StragglerMonitor monitor = speculationEnabled
+                ? new StragglerMonitor(transport::sendTask,
+                        speculationPercentile, speculationMultiplier, speculationMinSamples, speculationCheckIntervalMs)
+                : null;
+        ChunkCredits credits = maxOutstandingChunks > 0 ? new ChunkCredits(maxOutstandingChunks) : null;
+        ChunkingStrategy chunking = chunkingStrategy.newJob();
+        ChunkSender sender = new ChunkSender(taskId, startTime, chunking, monitor, credits);
+
+        int threads = splitThreads > 0 ? splitThreads : Runtime.getRuntime().availableProcessors();
+        int maxInFlight = threads * 2;
+        ExecutorService splitPool = Executors.newFixedThreadPool(threads);
+        Deque<Future<List<Sentence>>> inFlight = new ArrayDeque<>();
+
+        logger.info("Streaming {} files on {} split threads (chunks of {}, analyses {}, {}) for TaskID: {}",
+                files.size(), threads, chunkingStrategy.describe(), jobOptions.analyses(),
+                credits != null ? credits.describe() : "no flow control", taskId);
+
+        try (MessageTransport.Subscription ignored = transport.subscribeProgress(taskId,
+                progress -> {
+                    if (monitor != null) {
+                        // also for a chunk already settled by its failed publish, when a re-published copy arrives
+                        monitor.onCompleted(progress.chunkIndex());
+                    }
+                    if (!sender.reported.add(progress.chunkIndex())) {
+                        // repeated for a duplicate the aggregator dropped
+                        return;
+                    }
+                    sender.inFlight.decrementAndGet();
+                    inFlightChunks.decrementAndGet();
+                    Long sentAt = sender.sentAt.remove(progress.chunkIndex());
+                    if (sentAt != null) {
+                        chunkLatency.record(System.nanoTime() - sentAt, TimeUnit.NANOSECONDS);
+                    }
+                    chunking.onChunkProcessed(progress.chunkIndex(), progress.processingTimeMs());
+                    if (credits != null) {
+                        credits.release(progress.chunkIndex());
+                    }
+                })) {
+            for (Path file : files) {
+                for (TextSegment segment : reader.plan(file)) {
+                    inFlight.addLast(splitPool.submit(() -> split.recordCallable(() -> splitter.split(reader.read(segment)))));
+
+                    while (inFlight.size() > maxInFlight || (inFlight.size() > 1 && inFlight.getFirst().isDone())) {
+                        inFlight.removeFirst().get().forEach(sender::accept);
+                    }
+                }
+            }
+
+            while (!inFlight.isEmpty()) {
+                inFlight.removeFirst().get().forEach(sender::accept);
+            }
+
+            if (!sender.finish()) {
+                logger.warn("Text is empty. Exiting.");
+                return null;
+            }
+
+            long undelivered = transport.flush();
+            if (undelivered > 0) {
+                logger.error("{} chunks of task {} could not be delivered to the broker", undelivered, taskId);
+            }
+
+            if (monitor != null) {
+                if (!monitor.awaitCompletion(speculationAwaitTimeoutMs)) {
+                    logger.warn("Not all chunks were processed within {}ms, stopping straggler monitoring", speculationAwaitTimeoutMs);
+                }
+                logger.info("Job {} processed in {}ms, {} straggler chunks re-published",
+                        taskId, System.currentTimeMillis() - startTime, monitor.speculated());
+            }
+        } finally {
+            inFlightChunks.addAndGet(-sender.inFlight.get());
+            splitPool.shutdownNow();
+            if (monitor != null) {
+                monitor.close();
+            }
+        }
 
-        for (int i = 0; i < total; i++) {
-            TaskMessage msg = new TaskMessage(taskId, i, total, chunks.get(i));
-            rabbitTemplate.convertAndSend(exchange, routingKey, msg);
+        logger.info("Sent {} tasks ({} sentences) in {}ms", sender.sent, sender.sentences, System.currentTimeMillis() - startTime);
+        if (credits != null) {
+            logger.info("Publishing waited {}ms for aggregator credit", credits.stalledMs());
         }
-        
-        logger.info("All tasks sent in {}ms", System.currentTimeMillis() - startTime);
+        return taskId;
     }
 
-    private List<String> splitIntoSentences(String text) {
-        List<String> sentences = new ArrayList<>();
-        Annotation document = new Annotation(text);
-        pipeline.annotate(document);
-        
-        for (CoreMap sentence : document.get(CoreAnnotations.SentencesAnnotation.class)) {
-            sentences.add(sentence.toString());
+    /**
+     * Groups sentences into chunks and publishes them as soon as they are formed. The total is unknown
+     * until the corpus is exhausted, so every chunk is sent with {@code totalChunks = 0} except the last
+     * one, which is held back and carries the final count.
+     */
+    private class ChunkSender {
+        private final String taskId;
+        private final long jobStartedAt;
+        private final ChunkingStrategy chunking;
+        private final StragglerMonitor monitor;
+        private final ChunkCredits credits;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final Set<Integer> reported = ConcurrentHashMap.newKeySet();
+        private final Map<Integer, Long> sentAt = new ConcurrentHashMap<>();
+        private final StringBuilder currentChunk = new StringBuilder();
+        private int sentencesInChunk = 0;
+        private int tokensInChunk = 0;
+        private long sentences = 0;
+        private String pending;
+        private int sent = 0;
+
+        ChunkSender(String taskId, long jobStartedAt, ChunkingStrategy chunking, StragglerMonitor monitor,
+                    ChunkCredits credits) {
+            this.taskId = taskId;
+            this.jobStartedAt = jobStartedAt;
+            this.chunking = chunking;
+            this.monitor = monitor;
+            this.credits = credits;
         }
-        return sentences;
-    }
 
-    private String readText(String sourcePath) throws IOException {
-        Path path = Paths.get(sourcePath);
-        StringBuilder sb = new StringBuilder();
-
-        if (Files.isDirectory(path)) {
-            try (Stream<Path> stream = Files.walk(path)) {
-                stream.filter(Files::isRegularFile)
-                      .filter(p -> p.toString().endsWith(".txt"))
-                      .forEach(p -> {
-                          try {
-                              sb.append(Files.readString(p)).append(" ");
-                          } catch (IOException e) {
-                              logger.error("Error reading file: {}", p, e);
-                          }
-                      });
+        void accept(Sentence sentence) {
+            currentChunk.append(sentence.text()).append(" ");
+            sentences++;
+            sentencesInChunk++;
+            tokensInChunk += sentence.tokens();
+
+            if (chunking.shouldClose(sentencesInChunk, currentChunk.length(), tokensInChunk, sentence)) {
+                flushChunk();
+            }
+        }
+
+        boolean finish() {
+            if (!currentChunk.isEmpty()) {
+                flushChunk();
+            }
+            if (pending == null) {
+                return false;
+            }
+            send(pending, sent + 1);
+            pending = null;
+            return true;
+        }
+
+        private void flushChunk() {
+            if (pending != null) {
+                send(pending, 0);
+            }
+            pending = currentChunk.toString().trim();
+            currentChunk.setLength(0);
+            sentencesInChunk = 0;
+            tokensInChunk = 0;
+        }
+
+        private void send(String chunk, int totalChunks) {
+            if (credits != null) {
+                credits.acquire(sent);
+            }
+            TaskMessage msg = new TaskMessage(taskId, sent, totalChunks, chunk, jobOptions,
+                    jobStartedAt, System.currentTimeMillis());
+            chunking.onChunkSent(sent, chunk.length());
+            if (monitor != null) {
+                monitor.onSent(msg);
             }
-        } else if (Files.isRegularFile(path)) {
-            sb.append(Files.readString(path));
-        } else {
-            logger.error("Invalid source path: {}", sourcePath);
+            inFlight.incrementAndGet();
+            inFlightChunks.incrementAndGet();
+            long publishedAt = System.nanoTime();
+            sentAt.put(msg.chunkIndex(), publishedAt);
+            transport.sendTask(msg).whenComplete((ignored, error) -> {
+                publish.record(System.nanoTime() - publishedAt, TimeUnit.NANOSECONDS);
+                // the chunk never reaches a worker, so no progress will settle it; a copy re-published by the
+                // straggler monitor may still be reported, and the first of the two settles it
+                if (error != null && reported.add(msg.chunkIndex())) {
+                    inFlight.decrementAndGet();
+                    inFlightChunks.decrementAndGet();
+                    sentAt.remove(msg.chunkIndex());
+                    if (credits != null) {
+                        credits.release(msg.chunkIndex());
+                    }
+                }
+            });
+            sentChunks.increment();
+            sent++;
         }
-        return sb.toString();
     }
 }
@@ -0,0 +1,44 @@
+package org.itmo.distributed.component;
+
+import java.util.function.Consumer;
+
+import org.itmo.distributed.dto.ChunkProgress;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+/**
+ * Job-scoped subscription to the progress events the aggregator publishes for one task.
+ * Backed by an exclusive anonymous queue that is removed when the subscription is closed.
+ */
+class ProgressSubscription implements MessageTransport.Subscription {
+    private final AmqpAdmin admin;
+    private final Queue queue;
+    private final SimpleMessageListenerContainer container;
+
+    ProgressSubscription(ConnectionFactory connectionFactory, AmqpAdmin admin, MessageConverter converter,
+                         String exchange, String routingKey, Consumer<ChunkProgress> consumer) {
+        this.admin = admin;
+        this.queue = new AnonymousQueue();
+        admin.declareQueue(queue);
+        admin.declareBinding(new Binding(queue.getName(), Binding.DestinationType.QUEUE, exchange, routingKey, null));
+
+        this.container = new SimpleMessageListenerContainer(connectionFactory);
+        container.setQueueNames(queue.getName());
+        container.setMessageListener(message -> {
+            message.getMessageProperties().setInferredArgumentType(ChunkProgress.class);
+            consumer.accept((ChunkProgress) converter.fromMessage(message));
+        });
+        container.start();
+    }
+
+    @Override
+    public void close() {
+        container.stop();
+        admin.deleteQueue(queue.getName());
+    }
+}
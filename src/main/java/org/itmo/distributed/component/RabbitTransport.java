@@ -0,0 +1,92 @@
+package org.itmo.distributed.component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import org.itmo.distributed.config.RabbitConfig;
+import org.itmo.distributed.dto.ChunkProgress;
+import org.itmo.distributed.dto.CountReply;
+import org.itmo.distributed.dto.CountRequest;
+import org.itmo.distributed.dto.ResultMessage;
+import org.itmo.distributed.dto.TaskMessage;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tasks and results go through {@link ConfirmedPublisher}; progress, count requests and count replies
+ * are sent without waiting for confirms, as losing one only delays a job.
+ */
+@Component
+@Profile("!embedded")
+public class RabbitTransport implements MessageTransport {
+    private final RabbitTemplate rabbitTemplate;
+    private final ConfirmedPublisher publisher;
+    private final ConnectionFactory connectionFactory;
+    private final AmqpAdmin amqpAdmin;
+    private final MessageConverter messageConverter;
+
+    @Value("${app.rabbitmq.exchange}")
+    private String exchange;
+
+    @Value("${app.rabbitmq.routing-key.tasks}")
+    private String taskRoutingKey;
+
+    @Value("${app.rabbitmq.routing-key.results}")
+    private String resultRoutingKey;
+
+    @Value("${app.rabbitmq.routing-key.progress}")
+    private String progressRoutingKey;
+
+    @Value("${app.rabbitmq.routing-key.counts}")
+    private String countsRoutingKey;
+
+    public RabbitTransport(RabbitTemplate rabbitTemplate, ConfirmedPublisher publisher, ConnectionFactory connectionFactory,
+                           AmqpAdmin amqpAdmin, MessageConverter messageConverter) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.publisher = publisher;
+        this.connectionFactory = connectionFactory;
+        this.amqpAdmin = amqpAdmin;
+        this.messageConverter = messageConverter;
+    }
+
+    @Override
+    public CompletableFuture<Void> sendTask(TaskMessage task) {
+        return publisher.publish(exchange, taskRoutingKey, task);
+    }
+
+    @Override
+    public CompletableFuture<Void> sendResult(ResultMessage result) {
+        return publisher.publish(exchange, resultRoutingKey, result);
+    }
+
+    @Override
+    public void sendProgress(ChunkProgress progress) {
+        rabbitTemplate.convertAndSend(exchange, RabbitConfig.progressRoutingKey(progressRoutingKey, progress.taskId()), progress);
+    }
+
+    @Override
+    public void sendCountRequest(String queue, CountRequest request) {
+        rabbitTemplate.convertAndSend("", queue, request);
+    }
+
+    @Override
+    public void sendCountReply(CountReply reply) {
+        rabbitTemplate.convertAndSend(exchange, countsRoutingKey, reply);
+    }
+
+    @Override
+    public long flush() {
+        return publisher.flush();
+    }
+
+    @Override
+    public Subscription subscribeProgress(String taskId, Consumer<ChunkProgress> consumer) {
+        return new ProgressSubscription(connectionFactory, amqpAdmin, messageConverter, exchange,
+                RabbitConfig.progressRoutingKey(progressRoutingKey, taskId), consumer);
+    }
+}
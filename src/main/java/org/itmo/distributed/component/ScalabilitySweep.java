@@ -0,0 +1,216 @@
+package org.itmo.distributed.component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.itmo.distributed.service.CorpusReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scalability experiment over the embedded pipeline, started with {@code --sweep=<corpus path>}. The corpus
+ * is repeated paragraph by paragraph up to each configured size and run as a job with each worker count;
+ * the report holds every run's throughput and stage latencies, and per size the median job time with the
+ * speedup and efficiency relative to the smallest worker count.
+ */
+@Component
+@Profile("embedded")
+public class ScalabilitySweep implements CommandLineRunner {
+    static final String OPTION = "sweep";
+
+    private static final Logger logger = LoggerFactory.getLogger(ScalabilitySweep.class);
+    private static final long REPORT_POLL_MS = 20;
+
+    private final Producer producer;
+    private final EmbeddedTransport transport;
+    private final ObjectMapper objectMapper;
+    private final ApplicationArguments applicationArguments;
+
+    @Value("${app.embedded.sweep.corpus-bytes}")
+    private long[] corpusSizes;
+
+    @Value("${app.embedded.sweep.workers}")
+    private int[] workerCounts;
+
+    @Value("${app.embedded.sweep.repetitions}")
+    private int repetitions;
+
+    @Value("${app.embedded.sweep.warmup}")
+    private boolean warmup;
+
+    @Value("${app.embedded.sweep.job-timeout-ms}")
+    private long jobTimeoutMs;
+
+    @Value("${app.embedded.sweep.report}")
+    private Path reportPath;
+
+    @Value("${app.worker.concurrency}")
+    private int workerConcurrency;
+
+    @Value("${app.producer.window-bytes}")
+    private int windowBytes;
+
+    public ScalabilitySweep(Producer producer, EmbeddedTransport transport, ObjectMapper objectMapper,
+                            ApplicationArguments applicationArguments) {
+        this.producer = producer;
+        this.transport = transport;
+        this.objectMapper = objectMapper;
+        this.applicationArguments = applicationArguments;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        List<String> sources = applicationArguments.getOptionValues(OPTION);
+        if (sources == null) {
+            return;
+        }
+        if (sources.isEmpty() || sources.getFirst().isBlank()) {
+            logger.warn("No sweep corpus provided (use --sweep=<path>).");
+            return;
+        }
+
+        Path source = Paths.get(sources.getFirst());
+        long[] sizes = Arrays.stream(corpusSizes).sorted().toArray();
+        int[] workers = Arrays.stream(workerCounts).sorted().toArray();
+        if (workers[workers.length - 1] > workerConcurrency) {
+            logger.warn("Sweeping up to {} workers with app.worker.concurrency={}, workers beyond it wait for a pipeline",
+                    workers[workers.length - 1], workerConcurrency);
+        }
+
+        List<String> paragraphs = paragraphs(source);
+        Path corpusDir = Files.createTempDirectory("scalability-");
+        List<Run> runs = new ArrayList<>();
+        List<Point> points = new ArrayList<>();
+        try {
+            if (warmup) {
+                // loads the models and creates one pipeline per worker before anything is measured
+                transport.setWorkers(workers[workers.length - 1]);
+                runJob(corpus(corpusDir, paragraphs, sizes[0]), sizes[0], workers[workers.length - 1], 0);
+            }
+
+            for (long size : sizes) {
+                Path corpus = corpus(corpusDir, paragraphs, size);
+                long baselineMs = 0;
+                for (int workerCount : workers) {
+                    transport.setWorkers(workerCount);
+                    long[] timesMs = new long[repetitions];
+                    for (int repetition = 0; repetition < repetitions; repetition++) {
+                        Run run = runJob(corpus, size, workerCount, repetition + 1);
+                        runs.add(run);
+                        timesMs[repetition] = run.processingTimeMs();
+                    }
+
+                    Arrays.sort(timesMs);
+                    long medianMs = Math.max(1, timesMs[timesMs.length / 2]);
+                    if (baselineMs == 0) {
+                        baselineMs = medianMs;
+                    }
+                    double speedup = (double) baselineMs / medianMs;
+                    Point point = new Point(size, workerCount, medianMs, size * 1000.0 / medianMs, speedup,
+                            speedup * workers[0] / workerCount);
+                    points.add(point);
+                    logger.info("Sweep {} bytes x {} workers: median {}ms, {} bytes/s, speedup {}, efficiency {}",
+                            size, workerCount, medianMs, Math.round(point.bytesPerSecond()),
+                            String.format("%.2f", point.speedup()), String.format("%.2f", point.efficiency()));
+                }
+            }
+        } finally {
+            try (var files = Files.list(corpusDir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(corpusDir);
+        }
+
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(reportPath.toFile(),
+                new SweepReport(source.toString(), sizes, workers, repetitions, points, runs));
+        logger.info("Scalability report saved to: {}", reportPath.toAbsolutePath());
+    }
+
+    private Run runJob(Path corpus, long size, int workers, int repetition) throws Exception {
+        transport.takeTimings();
+        String taskId = producer.produce(corpus);
+        if (taskId == null) {
+            throw new IllegalStateException("Sweep corpus " + corpus + " is empty");
+        }
+
+        Path report = Aggregator.reportPath(taskId);
+        long deadline = System.currentTimeMillis() + jobTimeoutMs;
+        while (!Files.exists(report)) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("Job " + taskId + " did not finish within " + jobTimeoutMs + "ms");
+            }
+            Thread.sleep(REPORT_POLL_MS);
+        }
+
+        JsonNode fields = objectMapper.readTree(report.toFile());
+        Files.delete(report);
+        StageTimings timings = transport.takeTimings();
+        long processingTimeMs = Math.max(1, fields.path("processingTimeMs").asLong());
+        long chunks = timings.count(StageTimings.Stage.PROCESSING);
+        return new Run(size, workers, repetition, chunks, processingTimeMs, fields.path("aggregationTimeMs").asLong(),
+                size * 1000.0 / processingTimeMs, chunks * 1000.0 / processingTimeMs,
+                timings.summarize());
+    }
+
+    private List<String> paragraphs(Path source) throws IOException {
+        List<String> paragraphs = new ArrayList<>();
+        for (Path file : new CorpusReader(windowBytes).listFiles(source)) {
+            for (String paragraph : Files.readString(file, StandardCharsets.UTF_8).split("\\R\\s*\\R")) {
+                if (!paragraph.isBlank()) {
+                    paragraphs.add(paragraph.strip());
+                }
+            }
+        }
+        if (paragraphs.isEmpty()) {
+            throw new IllegalArgumentException("Sweep corpus " + source + " has no text");
+        }
+        return paragraphs;
+    }
+
+    private static Path corpus(Path directory, List<String> paragraphs, long size) throws IOException {
+        Path corpus = directory.resolve("corpus-" + size + ".txt");
+        if (Files.exists(corpus)) {
+            return corpus;
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(corpus, StandardCharsets.UTF_8)) {
+            long written = 0;
+            for (int i = 0; written < size; i = (i + 1) % paragraphs.size()) {
+                String paragraph = paragraphs.get(i);
+                writer.write(paragraph);
+                writer.write("\n\n");
+                written += paragraph.getBytes(StandardCharsets.UTF_8).length + 2;
+            }
+        }
+        return corpus;
+    }
+
+    private record Run(long corpusBytes, int workers, int repetition, long chunks, long processingTimeMs,
+                       long aggregationTimeMs, double bytesPerSecond, double chunksPerSecond,
+                       Map<String, StageTimings.Summary> stages) {
+    }
+
+    private record Point(long corpusBytes, int workers, long medianProcessingTimeMs, double bytesPerSecond,
+                         double speedup, double efficiency) {
+    }
+
+    private record SweepReport(String source, long[] corpusBytes, int[] workers, int repetitions,
+                               List<Point> scaling, List<Run> runs) {
+    }
+}
@@ -0,0 +1,61 @@
+package org.itmo.distributed.component;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Latency samples of the embedded pipeline stages of one run, summarized in milliseconds.
+ */
+class StageTimings {
+    enum Stage {
+        TASK_QUEUE,
+        SERIALIZATION,
+        PROCESSING,
+        RESULT_QUEUE,
+        AGGREGATION
+    }
+
+    private final Map<Stage, Queue<Long>> samples = new EnumMap<>(Stage.class);
+
+    StageTimings() {
+        for (Stage stage : Stage.values()) {
+            samples.put(stage, new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    void record(Stage stage, long nanos) {
+        samples.get(stage).add(nanos);
+    }
+
+    long count(Stage stage) {
+        return samples.get(stage).size();
+    }
+
+    Map<String, Summary> summarize() {
+        Map<String, Summary> summaries = new LinkedHashMap<>();
+        for (Map.Entry<Stage, Queue<Long>> stage : samples.entrySet()) {
+            long[] nanos = stage.getValue().stream().mapToLong(Long::longValue).sorted().toArray();
+            if (nanos.length > 0) {
+                summaries.put(stage.getKey().name().toLowerCase(), new Summary(nanos.length,
+                        millis(Arrays.stream(nanos).sum() / nanos.length), millis(percentile(nanos, 0.5)),
+                        millis(percentile(nanos, 0.95)), millis(nanos[nanos.length - 1])));
+            }
+        }
+        return summaries;
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    record Summary(long count, double meanMs, double p50Ms, double p95Ms, double maxMs) {
+    }
+}
@@ -0,0 +1,134 @@
+package org.itmo.distributed.component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.itmo.distributed.dto.TaskMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tracks chunks that were published but not yet reported by the aggregator and re-publishes stragglers
+ * once. A chunk is a straggler when a later chunk has already completed, or it is the final chunk, so it
+ * is not just waiting in the queue, and it has been outstanding longer than {@code multiplier} times the {@code percentile} of recent
+ * chunk latencies. Whichever copy finishes first counts; the aggregator drops the other one.
+ */
+class StragglerMonitor implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(StragglerMonitor.class);
+    private static final int LATENCY_WINDOW = 1024;
+
+    private final Consumer<TaskMessage> republisher;
+    private final double percentile;
+    private final double multiplier;
+    private final int minSamples;
+    private final Map<Integer, Outstanding> outstanding = new ConcurrentHashMap<>();
+    private final long[] latencies = new long[LATENCY_WINDOW];
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+    private int samples = 0;
+    private volatile int highestCompleted = -1;
+    private volatile int finalChunk = -1;
+    private int speculated = 0;
+
+    StragglerMonitor(Consumer<TaskMessage> republisher, double percentile, double multiplier, int minSamples,
+                     long checkIntervalMs) {
+        this.republisher = republisher;
+        this.percentile = percentile;
+        this.multiplier = multiplier;
+        this.minSamples = minSamples;
+        timer.scheduleWithFixedDelay(this::check, checkIntervalMs, checkIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    void onSent(TaskMessage task) {
+        outstanding.put(task.chunkIndex(), new Outstanding(task, System.currentTimeMillis()));
+        if (task.totalChunks() > 0) {
+            finalChunk = task.chunkIndex();
+        }
+    }
+
+    void onCompleted(int chunkIndex) {
+        Outstanding chunk = outstanding.remove(chunkIndex);
+        if (chunk == null) {
+            return;
+        }
+        synchronized (this) {
+            latencies[samples++ % LATENCY_WINDOW] = System.currentTimeMillis() - chunk.sentAt;
+            highestCompleted = Math.max(highestCompleted, chunkIndex);
+            if (outstanding.isEmpty()) {
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Waits until every published chunk has been reported, returning {@code false} on timeout.
+     */
+    synchronized boolean awaitCompletion(long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (!outstanding.isEmpty()) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(remaining);
+        }
+        return true;
+    }
+
+    synchronized int speculated() {
+        return speculated;
+    }
+
+    private void check() {
+        long threshold;
+        synchronized (this) {
+            if (samples < minSamples) {
+                return;
+            }
+            long[] window = Arrays.copyOf(latencies, Math.min(samples, LATENCY_WINDOW));
+            Arrays.sort(window);
+            int rank = (int) Math.min(window.length - 1, Math.ceil(percentile * window.length) - 1);
+            threshold = Math.round(window[Math.max(rank, 0)] * multiplier);
+        }
+
+        long now = System.currentTimeMillis();
+        int overtakenBelow = highestCompleted;
+        for (Map.Entry<Integer, Outstanding> entry : outstanding.entrySet()) {
+            Outstanding chunk = entry.getValue();
+            boolean started = entry.getKey() < overtakenBelow || entry.getKey() == finalChunk;
+            if (started && !chunk.speculated && now - chunk.sentAt > threshold) {
+                chunk.speculated = true;
+                synchronized (this) {
+                    speculated++;
+                }
+                logger.info("Re-publishing straggler chunk {} after {}ms (threshold {}ms)",
+                        entry.getKey(), now - chunk.sentAt, threshold);
+                try {
+                    republisher.accept(chunk.task);
+                } catch (RuntimeException e) {
+                    logger.warn("Failed to re-publish chunk {}", entry.getKey(), e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        timer.shutdownNow();
+    }
+
+    private static class Outstanding {
+        final TaskMessage task;
+        final long sentAt;
+        volatile boolean speculated = false;
+
+        Outstanding(TaskMessage task, long sentAt) {
+            this.task = task;
+            this.sentAt = sentAt;
+        }
+    }
+}
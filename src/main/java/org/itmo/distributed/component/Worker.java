@@ -1,17 +1,24 @@
 package org.itmo.distributed.component;
 
+import java.io.IOException;
 import java.util.UUID;
 
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.itmo.distributed.dto.CountRequest;
 import org.itmo.distributed.dto.ResultMessage;
 import org.itmo.distributed.dto.TaskMessage;
+import org.itmo.distributed.service.CombinerService;
 import org.itmo.distributed.service.TextProcessingService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.annotation.EnableRabbit;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.amqp.support.AmqpHeaders;
 import org.springframework.context.annotation.Profile;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -21,25 +28,81 @@ public class Worker {
     private static final Logger logger = LoggerFactory.getLogger(Worker.class);
 
     private final TextProcessingService processingService;
-    private final RabbitTemplate rabbitTemplate;
+    private final CombinerService combinerService;
+    private final MessageTransport transport;
+    private final Timer processing;
+    private final Counter processedChunks;
 
-    @Value("${app.rabbitmq.exchange}")
-    private String exchange;
-
-    @Value("${app.rabbitmq.routing-key.results}")
-    private String routingKey;
-
-    public Worker(TextProcessingService processingService, RabbitTemplate rabbitTemplate) {
+    public Worker(TextProcessingService processingService, CombinerService combinerService, MessageTransport transport,
+                  MeterRegistry meterRegistry) {
         this.processingService = processingService;
-        this.rabbitTemplate = rabbitTemplate;
+        this.combinerService = combinerService;
+        this.transport = transport;
+        this.processing = Timer.builder("text.processing").register(meterRegistry);
+        this.processedChunks = Counter.builder("text.chunks").tag("stage", "processed").register(meterRegistry);
         logger.info("Initialized worker with uuid: {}", UUID.randomUUID());
     }
 
-    @RabbitListener(queues = "${app.rabbitmq.queue.tasks}")
-    public void processTask(TaskMessage task) {
-        logger.info("Got task with id: {}, chunk index: {} out of: {} chunks.", task.id(), task.chunkIndex(), task.totalChunks());
+    /**
+     * Acknowledged manually from the confirm callback of the task's result, so the listener thread takes the
+     * next task while the result awaits its confirm, and a task whose result the broker did not take is
+     * requeued. A task that fails to process again after a redelivery is dead-lettered.
+     */
+    @RabbitListener(queues = "${app.rabbitmq.queue.tasks}", concurrency = "${app.worker.concurrency}",
+            containerFactory = "workerListenerContainerFactory", ackMode = "MANUAL")
+    public void processTask(TaskMessage task, Channel channel,
+                            @Header(AmqpHeaders.DELIVERY_TAG) long deliveryTag,
+                            @Header(AmqpHeaders.REDELIVERED) boolean redelivered) {
+        ResultMessage result;
+        try {
+            result = process(task);
+        } catch (RuntimeException e) {
+            if (redelivered) {
+                logger.error("Dead-lettering task with id: {}, chunk index: {} after repeated failures",
+                        task.id(), task.chunkIndex(), e);
+                acknowledge(task, () -> channel.basicReject(deliveryTag, false));
+            } else {
+                logger.error("Error processing task with id: {}, chunk index: {}, requeueing", task.id(), task.chunkIndex(), e);
+                acknowledge(task, () -> channel.basicNack(deliveryTag, false, true));
+            }
+            return;
+        }
+
+        transport.sendResult(result).whenComplete((ignored, error) -> {
+            if (error == null) {
+                acknowledge(task, () -> channel.basicAck(deliveryTag, false));
+            } else {
+                logger.error("Result of task with id: {}, chunk index: {} was not confirmed, requeueing the task",
+                        task.id(), task.chunkIndex(), error);
+                acknowledge(task, () -> channel.basicNack(deliveryTag, false, true));
+            }
+        });
+    }
+
+    /**
+     * Analyses one task; the caller publishes the result and settles the task.
+     */
+    ResultMessage process(TaskMessage task) {
+        logger.debug("Got task with id: {}, chunk index: {} out of: {} chunks.", task.id(), task.chunkIndex(), task.totalChunks());
+        ResultMessage result = processing.record(() -> processingService.process(task));
+        processedChunks.increment();
+        return result;
+    }
+
+    @RabbitListener(queues = "#{countRequestQueue.name}")
+    public void answerCountRequest(CountRequest request) {
+        transport.sendCountReply(combinerService.answer(request));
+    }
+
+    private static void acknowledge(TaskMessage task, Acknowledgement acknowledgement) {
+        try {
+            acknowledgement.send();
+        } catch (IOException e) {
+            logger.error("Error acknowledging task with id: {}, chunk index: {}", task.id(), task.chunkIndex(), e);
+        }
+    }
 
-        ResultMessage result = processingService.process(task);
-        rabbitTemplate.convertAndSend(exchange, routingKey, result);
+    private interface Acknowledgement {
+        void send() throws IOException;
     }
 }
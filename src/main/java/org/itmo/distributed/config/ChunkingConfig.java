@@ -0,0 +1,50 @@
+package org.itmo.distributed.config;
+
+import org.itmo.distributed.service.chunking.AdaptiveChunking;
+import org.itmo.distributed.service.chunking.CharacterBudgetChunking;
+import org.itmo.distributed.service.chunking.ChunkingStrategy;
+import org.itmo.distributed.service.chunking.ParagraphChunking;
+import org.itmo.distributed.service.chunking.SentenceCountChunking;
+import org.itmo.distributed.service.chunking.TokenBudgetChunking;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+@Configuration
+@Profile("producer")
+public class ChunkingConfig {
+
+    @Value("${app.producer.chunking.strategy}")
+    private String strategy;
+
+    @Value("${app.producer.chunking.sentences}")
+    private int sentences;
+
+    @Value("${app.producer.chunking.characters}")
+    private int characters;
+
+    @Value("${app.producer.chunking.tokens}")
+    private int tokens;
+
+    @Value("${app.producer.chunking.min-characters}")
+    private int minCharacters;
+
+    @Value("${app.producer.chunking.max-characters}")
+    private int maxCharacters;
+
+    @Value("${app.producer.chunking.target-chunk-ms}")
+    private long targetChunkMs;
+
+    @Bean
+    public ChunkingStrategy chunkingStrategy() {
+        return switch (strategy.toLowerCase()) {
+            case "sentences" -> new SentenceCountChunking(sentences);
+            case "characters" -> new CharacterBudgetChunking(characters);
+            case "tokens" -> new TokenBudgetChunking(tokens);
+            case "paragraph" -> new ParagraphChunking(minCharacters, maxCharacters);
+            case "adaptive" -> new AdaptiveChunking(characters, minCharacters, maxCharacters, targetChunkMs);
+            default -> throw new IllegalArgumentException("Unknown chunking strategy: " + strategy);
+        };
+    }
+}
@@ -0,0 +1,46 @@
+package org.itmo.distributed.config;
+
+import org.itmo.distributed.dto.Analysis;
+import org.itmo.distributed.dto.JobOptions;
+import org.itmo.distributed.dto.NameEngine;
+import org.itmo.distributed.dto.SentimentEngine;
+import org.itmo.distributed.dto.TopNMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+@Configuration
+@Profile("producer")
+public class JobConfig {
+
+    @Value("${app.job.analyses}")
+    private String analyses;
+
+    @Value("${app.job.top-n}")
+    private int topN;
+
+    @Value("${app.job.top-n-mode}")
+    private String topNMode;
+
+    @Value("${app.job.combiner-top-k}")
+    private int combinerTopK;
+
+    @Value("${app.job.sentiment-engine}")
+    private String sentimentEngine;
+
+    @Value("${app.job.name-engine}")
+    private String nameEngine;
+
+    @Bean
+    public JobOptions jobOptions() {
+        return new JobOptions(
+                Analysis.parseList(analyses),
+                topN,
+                TopNMode.valueOf(topNMode.toUpperCase()),
+                combinerTopK,
+                SentimentEngine.valueOf(sentimentEngine.toUpperCase()),
+                NameEngine.valueOf(nameEngine.toUpperCase())
+        );
+    }
+}
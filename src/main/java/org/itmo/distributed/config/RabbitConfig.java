@@ -1,14 +1,22 @@
 package org.itmo.distributed.config;
 
+import java.util.Map;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.itmo.distributed.codec.WireFormat;
+import org.itmo.distributed.codec.WireFormatMessageConverter;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
 import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.MessageDeliveryMode;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -30,19 +38,78 @@ public class RabbitConfig {
     @Value("${app.rabbitmq.routing-key.results}")
     private String resultRoutingKey;
 
+    @Value("${app.rabbitmq.queue.dead-tasks}")
+    private String deadTaskQueueName;
+
+    @Value("${app.rabbitmq.queue.dead-results}")
+    private String deadResultQueueName;
+
+    @Value("${app.rabbitmq.queue.counts}")
+    private String countQueueName;
+
+    @Value("${app.rabbitmq.routing-key.counts}")
+    private String countRoutingKey;
+
+    @Value("${app.rabbitmq.durable}")
+    private boolean durable;
+
+    @Value("${app.rabbitmq.prefetch}")
+    private int prefetch;
+
+    @Value("${app.worker.prefetch}")
+    private int workerPrefetch;
+
+    @Value("${app.aggregator.prefetch}")
+    private int aggregatorPrefetch;
+
+    @Value("${app.rabbitmq.wire-format}")
+    private String wireFormat;
+
+    @Value("${app.rabbitmq.compression-threshold}")
+    private int compressionThreshold;
+
+    public static String progressRoutingKey(String prefix, String taskId) {
+        return prefix + "." + taskId;
+    }
+
     @Bean
     public DirectExchange exchange() {
         return new DirectExchange(exchangeName);
     }
 
+    /**
+     * Tasks a worker rejects after a failed redelivery are dead-lettered to {@link #deadTaskQueue()}.
+     */
     @Bean
     public Queue taskQueue() {
-        return new Queue(taskQueueName, false);
+        return new Queue(taskQueueName, durable, false, false, Map.of(
+                "x-dead-letter-exchange", "",
+                "x-dead-letter-routing-key", deadTaskQueueName));
     }
 
+    @Bean
+    public Queue deadTaskQueue() {
+        return new Queue(deadTaskQueueName, durable);
+    }
+
+    /**
+     * Results the aggregator rejects after a failed redelivery are dead-lettered to {@link #deadResultQueue()}.
+     */
     @Bean
     public Queue resultQueue() {
-        return new Queue(resultQueueName, false);
+        return new Queue(resultQueueName, durable, false, false, Map.of(
+                "x-dead-letter-exchange", "",
+                "x-dead-letter-routing-key", deadResultQueueName));
+    }
+
+    @Bean
+    public Queue deadResultQueue() {
+        return new Queue(deadResultQueueName, durable);
+    }
+
+    @Bean
+    public Queue countQueue() {
+        return new Queue(countQueueName, false);
     }
 
     @Bean
@@ -56,14 +123,71 @@ public class RabbitConfig {
     }
 
     @Bean
-    public MessageConverter jsonMessageConverter() {
-        return new Jackson2JsonMessageConverter();
+    public Binding countBinding(DirectExchange exchange, Queue countQueue) {
+        return BindingBuilder.bind(countQueue).to(exchange).with(countRoutingKey);
+    }
+
+    @Bean
+    public MessageConverter messageConverter(MeterRegistry meterRegistry) {
+        return new WireFormatMessageConverter(
+                new Jackson2JsonMessageConverter(),
+                WireFormat.valueOf(wireFormat.toUpperCase()),
+                compressionThreshold,
+                meterRegistry
+        );
+    }
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory,
+            MessageConverter messageConverter) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setMessageConverter(messageConverter);
+        factory.setPrefetchCount(prefetch);
+        return factory;
+    }
+
+    /**
+     * Workers acknowledge a task only once the broker has confirmed its result, so their prefetch lets a
+     * consumer take the next task while the previous result awaits its confirm.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory workerListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory,
+            MessageConverter messageConverter) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setMessageConverter(messageConverter);
+        factory.setPrefetchCount(workerPrefetch);
+        return factory;
+    }
+
+    /**
+     * The aggregator hands results to its own threads and acknowledges them later, so its prefetch is the
+     * window its fair scheduling can choose from.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory aggregatorListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory,
+            MessageConverter messageConverter) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setMessageConverter(messageConverter);
+        factory.setPrefetchCount(aggregatorPrefetch);
+        return factory;
     }
 
     @Bean
-    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
+    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory, MessageConverter messageConverter) {
         RabbitTemplate template = new RabbitTemplate(connectionFactory);
-        template.setMessageConverter(jsonMessageConverter());
+        template.setMessageConverter(messageConverter);
+        template.setMandatory(true);
+        template.setBeforePublishPostProcessors(message -> {
+            message.getMessageProperties().setDeliveryMode(
+                    durable ? MessageDeliveryMode.PERSISTENT : MessageDeliveryMode.NON_PERSISTENT);
+            return message;
+        });
         return template;
     }
 }
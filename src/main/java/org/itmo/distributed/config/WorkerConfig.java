@@ -0,0 +1,16 @@
+package org.itmo.distributed.config;
+
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+@Configuration
+@Profile("worker")
+public class WorkerConfig {
+
+    @Bean
+    public AnonymousQueue countRequestQueue() {
+        return new AnonymousQueue();
+    }
+}
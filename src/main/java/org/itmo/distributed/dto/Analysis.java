@@ -0,0 +1,23 @@
+package org.itmo.distributed.dto;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+public enum Analysis {
+    WORD_COUNT,
+    TOP_N,
+    SENTIMENT,
+    NAME_REPLACEMENT,
+    SENTENCE_SORT;
+
+    public static Set<Analysis> parseList(String value) {
+        Set<Analysis> analyses = EnumSet.noneOf(Analysis.class);
+        Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .map(name -> Analysis.valueOf(name.toUpperCase().replace('-', '_')))
+                .forEach(analyses::add);
+        return analyses;
+    }
+}
@@ -0,0 +1,10 @@
+package org.itmo.distributed.dto;
+
+import java.io.Serializable;
+
+public record ChunkProgress(
+    String taskId,
+    int chunkIndex,
+    long processingTimeMs
+) implements Serializable {
+}
@@ -0,0 +1,14 @@
+package org.itmo.distributed.dto;
+
+import java.io.Serializable;
+
+import org.itmo.distributed.util.WordCounter;
+
+public record CountReply(
+    String taskId,
+    int chunkIndex,
+    WordCounter counts,
+    long residualBound,
+    boolean available
+) implements Serializable {
+}
@@ -0,0 +1,16 @@
+package org.itmo.distributed.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Asks a worker for counts of a chunk's words it has not reported yet: the listed {@code words}
+ * and, when {@code minCount > 0}, every word occurring at least {@code minCount} times.
+ */
+public record CountRequest(
+    String taskId,
+    int chunkIndex,
+    List<String> words,
+    long minCount
+) implements Serializable {
+}
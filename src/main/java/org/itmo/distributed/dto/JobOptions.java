@@ -0,0 +1,46 @@
+package org.itmo.distributed.dto;
+
+import java.io.Serializable;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Per-job settings carried by every task and echoed in every result.
+ * A positive {@code combinerTopK} makes workers send only their top-K word counts per chunk.
+ */
+public record JobOptions(
+    Set<Analysis> analyses,
+    int topN,
+    TopNMode topNMode,
+    int combinerTopK,
+    SentimentEngine sentimentEngine,
+    NameEngine nameEngine
+) implements Serializable {
+    public static final int DEFAULT_TOP_N = 5;
+
+    public JobOptions {
+        analyses = analyses == null || analyses.isEmpty()
+                ? EnumSet.noneOf(Analysis.class)
+                : EnumSet.copyOf(analyses);
+        topN = topN > 0 ? topN : DEFAULT_TOP_N;
+        topNMode = topNMode != null ? topNMode : TopNMode.EXACT;
+        combinerTopK = combinerTopK > 0 ? Math.max(combinerTopK, topN) : 0;
+        sentimentEngine = sentimentEngine != null ? sentimentEngine : SentimentEngine.RNN;
+        nameEngine = nameEngine != null ? nameEngine : NameEngine.NER;
+    }
+
+    public boolean requires(Analysis analysis) {
+        return analyses.contains(analysis);
+    }
+
+    public boolean usesCombiner() {
+        return combinerTopK > 0 && requires(Analysis.TOP_N);
+    }
+
+    /**
+     * Identifies everything that changes a chunk's analysis result, for content-addressed caching.
+     */
+    public String analysisVariant() {
+        return analyses + "/" + sentimentEngine + "/" + nameEngine;
+    }
+}
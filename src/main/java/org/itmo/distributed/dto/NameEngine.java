@@ -0,0 +1,10 @@
+package org.itmo.distributed.dto;
+
+/**
+ * {@code NER} masks CoreNLP PERSON entities (pos, lemma and ner annotators), {@code GAZETTEER} matches
+ * a name list plus capitalization heuristics and needs only tokenization.
+ */
+public enum NameEngine {
+    NER,
+    GAZETTEER
+}
@@ -2,16 +2,32 @@ package org.itmo.distributed.dto;
 
 import java.io.Serializable;
 import java.util.List;
-import java.util.Map;
 
+import org.itmo.distributed.util.WordCounter;
+
+/**
+ * With the combiner enabled {@code wordFrequencies} holds only the chunk's top-K words,
+ * {@code residualBound} is the largest count of any word left out and {@code countQueue}
+ * is where the worker answers {@link CountRequest}s for the rest of the chunk vocabulary.
+ * {@code jobStartedAt} and {@code sentAt} are copied from the task (producer clock).
+ * {@code sentimentAgreement} is only set by the {@link SentimentEngine#AGREEMENT} engine.
+ */
 public record ResultMessage(
     String taskId,
     int chunkIndex,
     int totalChunks,
+    JobOptions options,
     long wordCount,
-    Map<String, Integer> wordFrequencies,
+    WordCounter wordFrequencies,
+    long residualBound,
+    String countQueue,
     int positiveCount,
     int negativeCount,
-    String modifiedText,
-    List<String> sortedSentences
+    SentimentAgreement sentimentAgreement,
+    String text,
+    List<TextEdit> nameEdits,
+    List<SentenceSpan> sortedSentences,
+    long processingTimeMs,
+    long jobStartedAt,
+    long sentAt
 ) implements Serializable {}
@@ -0,0 +1,14 @@
+package org.itmo.distributed.dto;
+
+import java.io.Serializable;
+
+public record SentenceSpan(
+    int chunkIndex,
+    int start,
+    int end
+) implements Serializable {
+
+    public int length() {
+        return end - start;
+    }
+}
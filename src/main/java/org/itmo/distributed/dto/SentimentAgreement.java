@@ -0,0 +1,15 @@
+package org.itmo.distributed.dto;
+
+import java.io.Serializable;
+
+/**
+ * Lexicon engine counts for a chunk and the number of sentences on which it assigned the same
+ * class (positive, negative or neutral) as the RNN model.
+ */
+public record SentimentAgreement(
+    int lexiconPositive,
+    int lexiconNegative,
+    int agreed,
+    int compared
+) implements Serializable {
+}
@@ -0,0 +1,12 @@
+package org.itmo.distributed.dto;
+
+/**
+ * {@code RNN} runs CoreNLP's sentiment model over parse trees, {@code LEXICON} scores sentence words
+ * against a dictionary and needs only tokenization, {@code AGREEMENT} reports RNN counts and how often
+ * the lexicon engine agrees with them.
+ */
+public enum SentimentEngine {
+    RNN,
+    LEXICON,
+    AGREEMENT
+}
@@ -6,8 +6,10 @@ public record TaskMessage(
     String id,
     int chunkIndex,
     int totalChunks,
-    String content
+    String content,
+    JobOptions options,
+    long jobStartedAt,
+    long sentAt
 ) implements Serializable {
 }
 
-
@@ -0,0 +1,13 @@
+package org.itmo.distributed.dto;
+
+import java.io.Serializable;
+
+/**
+ * Replacement of the chunk text range {@code [start, end)} with {@link #NAME_REPLACEMENT}.
+ */
+public record TextEdit(
+    int start,
+    int end
+) implements Serializable {
+    public static final String NAME_REPLACEMENT = "[NAME]";
+}
@@ -0,0 +1,6 @@
+package org.itmo.distributed.dto;
+
+public enum TopNMode {
+    EXACT,
+    APPROXIMATE
+}
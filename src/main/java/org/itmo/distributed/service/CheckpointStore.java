@@ -0,0 +1,223 @@
+package org.itmo.distributed.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import org.itmo.distributed.codec.IncompatibleFormatException;
+import org.itmo.distributed.codec.MessageCodec;
+import org.itmo.distributed.dto.ResultMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only per-job log of the results an aggregator has accepted, in the binary message encoding.
+ * Each record is {@code [int length][int crc32c][payload]}; replay stops at the first torn or corrupt
+ * record and truncates the log there. A job's log is deleted once its report is written. A log written
+ * with another codec version is set aside unreplayed, its job cannot be resumed.
+ * <p>
+ * The log holds whole results rather than snapshots of the merged state, chunk text included for
+ * name replacement and sentence sort jobs, so its size and the replay time grow with the part of the
+ * corpus already aggregated. This keeps appends cheap and the top-N, sentence and text state free of a
+ * serialized form, at the price of roughly one more copy of the job's results on disk until it finishes.
+ * <p>
+ * Without {@code sync} an append only reaches the page cache: a process crash loses nothing, but a power
+ * failure can lose results that were already acknowledged, and those chunks are then never redelivered.
+ */
+public class CheckpointStore {
+    private static final Logger logger = LoggerFactory.getLogger(CheckpointStore.class);
+    private static final String EXTENSION = ".log";
+    private static final String INCOMPATIBLE_EXTENSION = ".incompatible";
+    private static final String COMPLETED_EXTENSION = ".done";
+    private static final int HEADER = 2 * Integer.BYTES;
+
+    private final Path directory;
+    private final boolean sync;
+    private final Map<String, FileChannel> logs = new ConcurrentHashMap<>();
+
+    public CheckpointStore(Path directory, boolean sync) {
+        try {
+            this.directory = Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.sync = sync;
+    }
+
+    public void append(ResultMessage result) {
+        byte[] payload = MessageCodec.encode(result);
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+
+        ByteBuffer record = ByteBuffer.allocate(HEADER + payload.length);
+        record.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+
+        try {
+            FileChannel log = logs.computeIfAbsent(result.taskId(), this::open);
+            while (record.hasRemaining()) {
+                log.write(record);
+            }
+            if (sync) {
+                log.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void delete(String taskId) {
+        try {
+            FileChannel log = logs.remove(taskId);
+            if (log != null) {
+                log.close();
+            }
+            Files.deleteIfExists(logFile(taskId));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Marks the job as finished and deletes its log. The marker is written first, so a crash in between
+     * leaves a log that is discarded on replay.
+     */
+    public void complete(String taskId) {
+        try (FileChannel marker = FileChannel.open(completedFile(taskId),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            if (sync) {
+                marker.force(true);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        delete(taskId);
+    }
+
+    /**
+     * Removes the marker of a finished job whose results are no longer expected.
+     */
+    public void forget(String taskId) {
+        try {
+            Files.deleteIfExists(completedFile(taskId));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the ids of the finished jobs, oldest first.
+     */
+    public List<String> completed() throws IOException {
+        List<Path> markers;
+        try (Stream<Path> stream = Files.list(directory)) {
+            markers = stream.filter(p -> p.getFileName().toString().endsWith(COMPLETED_EXTENSION)).toList();
+        }
+        Map<Path, FileTime> modified = new HashMap<>();
+        for (Path marker : markers) {
+            modified.put(marker, Files.getLastModifiedTime(marker));
+        }
+        return markers.stream()
+                .sorted(Comparator.comparing(modified::get))
+                .map(marker -> {
+                    String name = marker.getFileName().toString();
+                    return name.substring(0, name.length() - COMPLETED_EXTENSION.length());
+                })
+                .toList();
+    }
+
+    /**
+     * Feeds every intact record of every job log to {@code consumer}, job by job in log order.
+     */
+    public void replay(Consumer<ResultMessage> consumer) throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.filter(p -> p.getFileName().toString().endsWith(EXTENSION)).sorted().toList();
+        }
+
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            if (Files.exists(completedFile(name.substring(0, name.length() - EXTENSION.length())))) {
+                logger.info("Deleting checkpoint {} of a finished job", file);
+                Files.delete(file);
+                continue;
+            }
+            try {
+                replay(file, consumer);
+            } catch (IncompatibleFormatException e) {
+                Path aside = file.resolveSibling(file.getFileName() + INCOMPATIBLE_EXTENSION);
+                logger.error("Checkpoint {} was written by another version ({}), moved to {} without resuming its job",
+                        file, e.getMessage(), aside);
+                Files.move(file, aside, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    private void replay(Path file, Consumer<ResultMessage> consumer) throws IOException {
+        int records = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            long position = 0;
+            long size = channel.size();
+            while (position + HEADER <= size) {
+                header.clear();
+                channel.read(header, position);
+                header.flip();
+                int length = header.getInt();
+                int checksum = header.getInt();
+                if (length < 0 || position + HEADER + length > size) {
+                    break;
+                }
+
+                ByteBuffer payload = ByteBuffer.allocate(length);
+                while (payload.hasRemaining()) {
+                    channel.read(payload, position + HEADER + payload.position());
+                }
+                CRC32C crc = new CRC32C();
+                crc.update(payload.array());
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+
+                consumer.accept((ResultMessage) MessageCodec.decode(payload.array()));
+                position += HEADER + length;
+                records++;
+            }
+            if (position < size) {
+                logger.warn("Truncating torn checkpoint tail of {} at byte {}", file, position);
+                channel.truncate(position);
+            }
+        }
+        logger.info("Replayed {} checkpointed results from {}", records, file);
+    }
+
+    private FileChannel open(String taskId) {
+        try {
+            return FileChannel.open(logFile(taskId),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path logFile(String taskId) {
+        return directory.resolve(taskId + EXTENSION);
+    }
+
+    private Path completedFile(String taskId) {
+        return directory.resolve(taskId + COMPLETED_EXTENSION);
+    }
+}
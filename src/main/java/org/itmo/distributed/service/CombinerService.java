@@ -0,0 +1,102 @@
+package org.itmo.distributed.service;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.itmo.distributed.dto.CountReply;
+import org.itmo.distributed.dto.CountRequest;
+import org.itmo.distributed.util.BoundedTopN;
+import org.itmo.distributed.util.WordCounter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+/**
+ * Worker-side combiner: reduces a chunk's vocabulary to its top-K words and keeps the full counts
+ * of recent chunks so that the aggregator can ask for the words it still needs.
+ */
+@Service
+@Profile("worker")
+public class CombinerService {
+    private final Map<String, ChunkVocabulary> vocabularies;
+
+    public CombinerService(@Value("${app.worker.combiner.cached-chunks}") int cachedChunks) {
+        this.vocabularies = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ChunkVocabulary> eldest) {
+                return size() > cachedChunks;
+            }
+        };
+    }
+
+    public Combined combine(String taskId, int chunkIndex, WordCounter counts, int topK) {
+        if (counts.size() <= topK) {
+            return new Combined(counts, 0);
+        }
+
+        BoundedTopN top = new BoundedTopN(topK);
+        counts.forEach(top::offer);
+
+        WordCounter reported = new WordCounter(topK);
+        Set<String> sent = new HashSet<>();
+        top.toMap().forEach((word, count) -> {
+            reported.add(word, count);
+            sent.add(word);
+        });
+
+        ChunkVocabulary vocabulary = new ChunkVocabulary(counts, sent);
+        synchronized (vocabularies) {
+            vocabularies.put(key(taskId, chunkIndex), vocabulary);
+        }
+        return new Combined(reported, vocabulary.residualBound());
+    }
+
+    public CountReply answer(CountRequest request) {
+        ChunkVocabulary vocabulary;
+        synchronized (vocabularies) {
+            vocabulary = vocabularies.get(key(request.taskId(), request.chunkIndex()));
+        }
+        if (vocabulary == null) {
+            return new CountReply(request.taskId(), request.chunkIndex(), new WordCounter(), 0, false);
+        }
+
+        synchronized (vocabulary) {
+            WordCounter counts = new WordCounter();
+            for (String word : request.words()) {
+                long count = vocabulary.counts.get(word);
+                if (count > 0 && vocabulary.sent.add(word)) {
+                    counts.add(word, count);
+                }
+            }
+            if (request.minCount() > 0) {
+                vocabulary.counts.forEach((word, count) -> {
+                    if (count >= request.minCount() && vocabulary.sent.add(word)) {
+                        counts.add(word, count);
+                    }
+                });
+            }
+            return new CountReply(request.taskId(), request.chunkIndex(), counts, vocabulary.residualBound(), true);
+        }
+    }
+
+    private static String key(String taskId, int chunkIndex) {
+        return taskId + ":" + chunkIndex;
+    }
+
+    public record Combined(WordCounter reported, long residualBound) {
+    }
+
+    private record ChunkVocabulary(WordCounter counts, Set<String> sent) {
+        long residualBound() {
+            long[] max = {0};
+            counts.forEach((word, count) -> {
+                if (count > max[0] && !sent.contains(word)) {
+                    max[0] = count;
+                }
+            });
+            return max[0];
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package org.itmo.distributed.service;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Reads a corpus as bounded memory-mapped windows cut at paragraph breaks where possible,
+ * falling back to line breaks, whitespace and finally any UTF-8 character boundary.
+ */
+public class CorpusReader {
+    private static final String TEXT_EXTENSION = ".txt";
+    private static final int BOUNDARY_LOOKBACK = 64 * 1024;
+
+    private final int windowBytes;
+
+    public CorpusReader(int windowBytes) {
+        if (windowBytes <= 0) {
+            throw new IllegalArgumentException("Window size must be positive: " + windowBytes);
+        }
+        this.windowBytes = windowBytes;
+    }
+
+    public List<Path> listFiles(Path source) throws IOException {
+        if (Files.isRegularFile(source)) {
+            return List.of(source);
+        }
+        if (!Files.isDirectory(source)) {
+            throw new IOException("Invalid source path: " + source);
+        }
+        try (Stream<Path> stream = Files.walk(source)) {
+            return stream.filter(Files::isRegularFile)
+                    .filter(p -> p.toString().endsWith(TEXT_EXTENSION))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    public List<TextSegment> plan(Path file) throws IOException {
+        List<TextSegment> segments = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                long end = Math.min(position + windowBytes, size);
+                if (end < size) {
+                    end = findBoundary(channel, position, end);
+                }
+                segments.add(new TextSegment(file, position, (int) (end - position)));
+                position = end;
+            }
+        }
+        return segments;
+    }
+
+    public String read(TextSegment segment) throws IOException {
+        if (segment.length() == 0) {
+            return "";
+        }
+        try (FileChannel channel = FileChannel.open(segment.file(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, segment.offset(), segment.length());
+            return StandardCharsets.UTF_8.decode(buffer).toString();
+        }
+    }
+
+    private static long findBoundary(FileChannel channel, long start, long end) throws IOException {
+        long from = Math.max(start, end - BOUNDARY_LOOKBACK);
+        MappedByteBuffer tail = channel.map(FileChannel.MapMode.READ_ONLY, from, end - from);
+        int limit = tail.limit();
+
+        int lineBreak = -1;
+        int space = -1;
+        for (int i = limit - 1; i > 0; i--) {
+            byte current = tail.get(i);
+            if (current == '\n') {
+                if (tail.get(i - 1) == '\n') {
+                    return from + i + 1;
+                }
+                if (lineBreak < 0) {
+                    lineBreak = i;
+                }
+            } else if (space < 0 && (current == ' ' || current == '\t')) {
+                space = i;
+            }
+        }
+        if (lineBreak >= 0) {
+            return from + lineBreak + 1;
+        }
+        if (space >= 0) {
+            return from + space + 1;
+        }
+        for (int i = limit - 1; i > 0; i--) {
+            if ((tail.get(i) & 0xC0) != 0x80) {
+                return from + i;
+            }
+        }
+        return end;
+    }
+}
@@ -0,0 +1,222 @@
+package org.itmo.distributed.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Stream;
+
+import org.itmo.distributed.dto.SentenceSpan;
+
+/**
+ * Sorts a job's sentences by length with bounded heap: each chunk's sorted run is spilled as it arrives
+ * to segment files (one writer per listener thread), and {@link #merge()} k-way merges the memory-mapped
+ * runs lazily. A run record is {@code [int chars][int bytes][UTF-8 bytes]}.
+ */
+public class ExternalSentenceSorter implements AutoCloseable {
+    private static final int RECORD_HEADER = 2 * Integer.BYTES;
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final Map<Long, SegmentWriter> writers = new ConcurrentHashMap<>();
+    private final Queue<Run> runs = new ConcurrentLinkedQueue<>();
+
+    public ExternalSentenceSorter(Path spillDirectory, long segmentBytes) {
+        if (segmentBytes <= 0 || segmentBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segment size must be in (0, 2GB): " + segmentBytes);
+        }
+        try {
+            Files.createDirectories(spillDirectory);
+            this.directory = Files.createTempDirectory(spillDirectory, "sentences-");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.segmentBytes = segmentBytes;
+    }
+
+    /**
+     * Spills one chunk's sentences, already sorted by length, as a single run.
+     */
+    public void addRun(String chunkText, List<SentenceSpan> sortedSpans) {
+        if (sortedSpans.isEmpty()) {
+            return;
+        }
+
+        byte[][] encoded = new byte[sortedSpans.size()][];
+        int size = 0;
+        for (int i = 0; i < encoded.length; i++) {
+            encoded[i] = TextMaterializer.sentence(chunkText, sortedSpans.get(i)).getBytes(StandardCharsets.UTF_8);
+            size += RECORD_HEADER + encoded[i].length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        for (int i = 0; i < encoded.length; i++) {
+            buffer.putInt(sortedSpans.get(i).length()).putInt(encoded[i].length).put(encoded[i]);
+        }
+        buffer.flip();
+
+        SegmentWriter writer = writers.computeIfAbsent(Thread.currentThread().threadId(), SegmentWriter::new);
+        try {
+            runs.add(writer.write(buffer));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns all spilled sentences in ascending length order. Must be called after the last
+     * {@link #addRun} and iterated once, before {@link #close()}.
+     */
+    public Iterable<String> merge() {
+        try {
+            for (SegmentWriter writer : writers.values()) {
+                writer.close();
+            }
+
+            Map<Path, MappedByteBuffer> segments = new HashMap<>();
+            PriorityQueue<RunCursor> queue = new PriorityQueue<>(Math.max(1, runs.size()),
+                    (a, b) -> Integer.compare(a.length, b.length));
+            for (Run run : runs) {
+                MappedByteBuffer segment = segments.get(run.segment());
+                if (segment == null) {
+                    segment = map(run.segment());
+                    segments.put(run.segment(), segment);
+                }
+                RunCursor cursor = new RunCursor(segment.slice((int) run.offset(), run.length()));
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                }
+            }
+            return () -> new MergeIterator(queue);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        for (SegmentWriter writer : writers.values()) {
+            try {
+                writer.close();
+            } catch (IOException ignored) {
+            }
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static MappedByteBuffer map(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private record Run(Path segment, long offset, int length) {
+    }
+
+    private class SegmentWriter {
+        private final long threadId;
+        private int segmentIndex = 0;
+        private Path path;
+        private FileChannel channel;
+        private long position;
+
+        SegmentWriter(long threadId) {
+            this.threadId = threadId;
+        }
+
+        Run write(ByteBuffer run) throws IOException {
+            if (channel == null || (position > 0 && position + run.remaining() > segmentBytes)) {
+                roll();
+            }
+            Run written = new Run(path, position, run.remaining());
+            while (run.hasRemaining()) {
+                position += channel.write(run);
+            }
+            return written;
+        }
+
+        private void roll() throws IOException {
+            close();
+            path = directory.resolve("run-" + threadId + "-" + segmentIndex++ + ".seg");
+            channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            position = 0;
+        }
+
+        void close() throws IOException {
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        }
+    }
+
+    private static class RunCursor {
+        final ByteBuffer buffer;
+        int length;
+
+        RunCursor(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        boolean advance() {
+            if (!buffer.hasRemaining()) {
+                return false;
+            }
+            length = buffer.getInt();
+            return true;
+        }
+
+        String read() {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static class MergeIterator implements Iterator<String> {
+        private final PriorityQueue<RunCursor> queue;
+
+        MergeIterator(PriorityQueue<RunCursor> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !queue.isEmpty();
+        }
+
+        @Override
+        public String next() {
+            RunCursor cursor = queue.poll();
+            if (cursor == null) {
+                throw new NoSuchElementException();
+            }
+            String sentence = cursor.read();
+            if (cursor.advance()) {
+                queue.add(cursor);
+            }
+            return sentence;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package org.itmo.distributed.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.stanford.nlp.ling.CoreLabel;
+import org.itmo.distributed.dto.TextEdit;
+import org.itmo.distributed.util.AhoCorasick;
+import org.itmo.distributed.util.LexiconTrie;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+/**
+ * Name finder that needs only tokens: one pass feeds the tokens, space-separated, through an Aho-Corasick
+ * automaton over the gazetteer, and marks the longest whole-token match when its words are capitalized.
+ * A capitalized token right after an honorific or after a found name (a surname) is marked as well.
+ */
+@Service
+@Profile("worker")
+public class GazetteerNames {
+    private static final Logger logger = LoggerFactory.getLogger(GazetteerNames.class);
+    private static final LexiconTrie HONORIFICS = LexiconTrie.of(flags(
+            "mr", "mr.", "mrs", "mrs.", "ms", "ms.", "dr", "dr.", "prof", "prof.", "miss", "sir", "lady", "lord",
+            "madam", "madame", "monsieur", "mademoiselle", "captain", "colonel", "general", "uncle", "aunt"));
+
+    private final AhoCorasick gazetteer;
+
+    public GazetteerNames(@Value("${app.worker.names.gazetteer}") Resource resource) throws IOException {
+        Map<String, Integer> patterns = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] words = line.trim().split("\\s+");
+                // a leading space anchors every pattern at a token start
+                patterns.put(" " + String.join(" ", words), words.length);
+            }
+        }
+        this.gazetteer = AhoCorasick.of(patterns);
+        logger.info("Loaded name gazetteer {} with {} entries", resource, patterns.size());
+    }
+
+    public List<TextEdit> findNames(List<CoreLabel> tokens) {
+        boolean[] names = new boolean[tokens.size()];
+        int state = AhoCorasick.ROOT;
+        for (int i = 0; i < tokens.size(); i++) {
+            String word = tokens.get(i).word();
+            state = gazetteer.next(state, ' ');
+            for (int c = 0; c < word.length(); c++) {
+                state = gazetteer.next(state, word.charAt(c));
+            }
+
+            int matched = gazetteer.output(state);
+            if (matched > 0 && capitalized(tokens, i - matched + 1, i)) {
+                for (int j = i - matched + 1; j <= i; j++) {
+                    names[j] = true;
+                }
+            } else if (i > 0 && isCapitalized(word)
+                    && (names[i - 1] || HONORIFICS.contains(tokens.get(i - 1).word()))) {
+                names[i] = true;
+            }
+        }
+
+        List<TextEdit> edits = new ArrayList<>();
+        for (int i = 0; i < names.length; i++) {
+            if (names[i]) {
+                edits.add(new TextEdit(tokens.get(i).beginPosition(), tokens.get(i).endPosition()));
+            }
+        }
+        return edits;
+    }
+
+    private static boolean capitalized(List<CoreLabel> tokens, int from, int to) {
+        for (int i = from; i <= to; i++) {
+            if (!isCapitalized(tokens.get(i).word())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isCapitalized(String word) {
+        if (word.length() < 2 || !Character.isUpperCase(word.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < word.length(); i++) {
+            if (Character.isLowerCase(word.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Map<String, Integer> flags(String... words) {
+        Map<String, Integer> entries = new HashMap<>();
+        for (String word : words) {
+            entries.put(word, 1);
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,85 @@
+package org.itmo.distributed.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.stanford.nlp.ling.CoreLabel;
+import org.itmo.distributed.util.LexiconTrie;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+/**
+ * Dictionary sentiment: a sentence scores the sum of its words' lexicon scores, with the polarity of
+ * words within {@value #NEGATION_SCOPE} tokens after a negation flipped until the next clause boundary.
+ * Needs only tokenized, sentence-split text.
+ */
+@Service
+@Profile("worker")
+public class LexiconSentiment {
+    private static final Logger logger = LoggerFactory.getLogger(LexiconSentiment.class);
+    private static final int NEGATION_SCOPE = 3;
+    private static final LexiconTrie NEGATIONS = LexiconTrie.of(flags(
+            "not", "no", "never", "n't", "nobody", "nothing", "none", "neither", "nor", "without", "hardly", "cannot"));
+    private static final LexiconTrie CLAUSE_BOUNDARIES = LexiconTrie.of(flags(
+            ".", ",", ";", ":", "!", "?", "but", "however"));
+
+    private final LexiconTrie lexicon;
+
+    public LexiconSentiment(@Value("${app.worker.sentiment.lexicon}") Resource resource) throws IOException {
+        Map<String, Integer> entries = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                int tab = line.indexOf('\t');
+                entries.put(line.substring(0, tab).trim(), Integer.parseInt(line.substring(tab + 1).trim()));
+            }
+        }
+        this.lexicon = LexiconTrie.of(entries);
+        logger.info("Loaded sentiment lexicon {} with {} words", resource, lexicon.size());
+    }
+
+    /**
+     * Returns the sentence score: positive above zero, negative below zero, neutral at zero.
+     */
+    public int score(List<CoreLabel> sentenceTokens) {
+        int total = 0;
+        int negated = 0;
+        for (CoreLabel token : sentenceTokens) {
+            String word = token.word();
+            if (NEGATIONS.contains(word)) {
+                negated = NEGATION_SCOPE;
+                continue;
+            }
+            if (CLAUSE_BOUNDARIES.contains(word)) {
+                negated = 0;
+                continue;
+            }
+            int score = lexicon.score(word);
+            total += negated > 0 ? -score : score;
+            if (negated > 0) {
+                negated--;
+            }
+        }
+        return total;
+    }
+
+    private static Map<String, Integer> flags(String... words) {
+        Map<String, Integer> entries = new HashMap<>();
+        for (String word : words) {
+            entries.put(word, 1);
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,76 @@
+package org.itmo.distributed.service;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.stanford.nlp.pipeline.StanfordCoreNLP;
+
+/**
+ * Pool of CoreNLP pipelines per annotator set. A pipeline is used by one thread at a time;
+ * the underlying models are loaded once through CoreNLP's annotator cache and shared read-only
+ * between all pipelines with the same configuration. Pipelines do not enforce annotator requirements,
+ * so a document can be passed through several pipelines, one stage after another.
+ */
+public class PipelinePool {
+    private static final long CREATE_RETRY_MS = 500;
+
+    private final int maxPerAnnotatorSet;
+    private final Map<String, Slot> slots = new ConcurrentHashMap<>();
+
+    public PipelinePool(int maxPerAnnotatorSet) {
+        if (maxPerAnnotatorSet <= 0) {
+            throw new IllegalArgumentException("Pool size must be positive: " + maxPerAnnotatorSet);
+        }
+        this.maxPerAnnotatorSet = maxPerAnnotatorSet;
+    }
+
+    public StanfordCoreNLP acquire(String annotators) throws InterruptedException {
+        Slot slot = slots.computeIfAbsent(annotators, key -> new Slot());
+
+        while (true) {
+            StanfordCoreNLP pipeline = slot.idle.poll();
+            if (pipeline != null) {
+                return pipeline;
+            }
+            int created = slot.created.get();
+            if (created >= maxPerAnnotatorSet) {
+                // timed, so a waiter notices a slot given back by a failed creation
+                pipeline = slot.idle.poll(CREATE_RETRY_MS, TimeUnit.MILLISECONDS);
+                if (pipeline != null) {
+                    return pipeline;
+                }
+                continue;
+            }
+            if (slot.created.compareAndSet(created, created + 1)) {
+                try {
+                    return create(annotators);
+                } catch (RuntimeException | Error e) {
+                    slot.created.decrementAndGet();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    public void release(String annotators, StanfordCoreNLP pipeline) {
+        slots.get(annotators).idle.offer(pipeline);
+    }
+
+    private static StanfordCoreNLP create(String annotators) {
+        Properties props = new Properties();
+        props.setProperty("annotators", annotators);
+        // set by CoreNLP itself only when sentiment runs in the same pipeline as the parser
+        props.setProperty("parse.binaryTrees", "true");
+        return new StanfordCoreNLP(props, false);
+    }
+
+    private static class Slot {
+        final BlockingQueue<StanfordCoreNLP> idle = new LinkedBlockingQueue<>();
+        final AtomicInteger created = new AtomicInteger(0);
+    }
+}
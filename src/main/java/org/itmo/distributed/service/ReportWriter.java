@@ -0,0 +1,112 @@
+package org.itmo.distributed.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes a job report as it is produced instead of materializing it: the text field is appended one
+ * chunk at a time, arrays are streamed element by element, and null fields are omitted. The report is
+ * written to a {@code .part} file and moved into place by {@link #commit()}.
+ */
+public class ReportWriter implements AutoCloseable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path target;
+    private final Path partial;
+    private final JsonGenerator generator;
+    private final JsonStringEncoder encoder = JsonStringEncoder.getInstance();
+    private boolean textOpen = false;
+    private boolean committed = false;
+
+    public ReportWriter(ObjectMapper objectMapper, Path target, boolean pretty) throws IOException {
+        this.target = target;
+        this.partial = target.resolveSibling(target.getFileName() + ".part");
+        FileChannel channel = FileChannel.open(partial,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.generator = objectMapper.getFactory().createGenerator(
+                new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE), JsonEncoding.UTF8);
+        if (pretty) {
+            generator.useDefaultPrettyPrinter();
+        }
+        generator.writeStartObject();
+    }
+
+    public void writeField(String name, Object value) throws IOException {
+        finishText();
+        if (value != null) {
+            generator.writePOJOField(name, value);
+        }
+    }
+
+    /**
+     * Appends one piece of a string field; consecutive pieces are separated by a single space. The
+     * field stays open until any other field is written.
+     */
+    public void appendText(String name, String piece) throws IOException {
+        if (piece == null || piece.isEmpty()) {
+            return;
+        }
+        if (!textOpen) {
+            generator.writeFieldName(name);
+            generator.writeRawValue("\"");
+            textOpen = true;
+        } else {
+            generator.writeRaw(' ');
+        }
+        char[] escaped = encoder.quoteAsString(piece);
+        generator.writeRaw(escaped, 0, escaped.length);
+    }
+
+    public void writeStrings(String name, Iterable<String> values) throws IOException {
+        finishText();
+        if (values == null) {
+            return;
+        }
+        generator.writeArrayFieldStart(name);
+        for (String value : values) {
+            generator.writeString(value);
+        }
+        generator.writeEndArray();
+    }
+
+    public void commit() throws IOException {
+        finishText();
+        generator.writeEndObject();
+        generator.close();
+        Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        committed = true;
+    }
+
+    public Path target() {
+        return target;
+    }
+
+    /**
+     * Discards an uncommitted report.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!committed) {
+            generator.close();
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    private void finishText() throws IOException {
+        if (textOpen) {
+            generator.writeRaw('"');
+            textOpen = false;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package org.itmo.distributed.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.itmo.distributed.codec.MessageCodec;
+import org.itmo.distributed.dto.ResultMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+/**
+ * Content-addressed worker cache of analysis results on local disk: the key is a SHA-256 of the codec
+ * version, the chunk text and the analysis variant, the value the binary-encoded {@link ResultMessage}.
+ * Entries of another codec version are never looked up again and age out through eviction. Entries are evicted
+ * least recently used first once the cache exceeds {@code max-bytes}; the index is rebuilt from file
+ * modification times on startup.
+ */
+@Service
+@Profile("worker")
+public class ResultCache {
+    private static final Logger logger = LoggerFactory.getLogger(ResultCache.class);
+    private static final String EXTENSION = ".bin";
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long maxBytes;
+    private final Map<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes = 0;
+
+    public ResultCache(@Value("${app.worker.result-cache.enabled}") boolean enabled,
+                       @Value("${app.worker.result-cache.dir}") Path directory,
+                       @Value("${app.worker.result-cache.max-bytes}") long maxBytes) throws IOException {
+        this.enabled = enabled;
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        if (enabled) {
+            load();
+        }
+    }
+
+    /**
+     * Returns {@code null} when the cache is disabled, which {@link #get} and {@link #put} ignore.
+     */
+    public String key(String text, String variant) {
+        if (!enabled) {
+            return null;
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((byte) MessageCodec.VERSION);
+            digest.update(variant.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public ResultMessage get(String key) {
+        if (!enabled) {
+            return null;
+        }
+        synchronized (entries) {
+            if (entries.get(key) == null) {
+                return null;
+            }
+        }
+        try {
+            return (ResultMessage) MessageCodec.decode(Files.readAllBytes(file(key)));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Dropping unreadable cache entry {}", key, e);
+            remove(key);
+            return null;
+        }
+    }
+
+    public void put(String key, ResultMessage result) {
+        if (!enabled) {
+            return;
+        }
+        byte[] bytes = MessageCodec.encode(result);
+        try {
+            Path target = file(key);
+            Files.createDirectories(target.getParent());
+            Path temporary = Files.createTempFile(target.getParent(), key, ".tmp");
+            Files.write(temporary, bytes);
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Could not cache result {}", key, e);
+            return;
+        }
+
+        synchronized (entries) {
+            Long previous = entries.put(key, (long) bytes.length);
+            totalBytes += bytes.length - (previous != null ? previous : 0);
+            evict();
+        }
+    }
+
+    private void remove(String key) {
+        synchronized (entries) {
+            Long size = entries.remove(key);
+            if (size != null) {
+                totalBytes -= size;
+            }
+        }
+        delete(file(key));
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            totalBytes -= entry.getValue();
+            eldest.remove();
+            delete(file(entry.getKey()));
+        }
+    }
+
+    private void load() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> stream = Files.walk(directory)) {
+            files = stream.filter(p -> p.getFileName().toString().endsWith(EXTENSION))
+                    .sorted((a, b) -> lastModified(a).compareTo(lastModified(b)))
+                    .toList();
+        }
+        synchronized (entries) {
+            for (Path file : files) {
+                long size = Files.size(file);
+                String name = file.getFileName().toString();
+                entries.put(name.substring(0, name.length() - EXTENSION.length()), size);
+                totalBytes += size;
+            }
+            evict();
+        }
+        logger.info("Result cache {} holds {} entries ({} bytes)", directory, entries.size(), totalBytes);
+    }
+
+    private Path file(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key + EXTENSION);
+    }
+
+    private static Long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete cache file {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package org.itmo.distributed.service;
+
+public record Sentence(String text, int tokens, boolean endsParagraph) {
+}
@@ -6,17 +6,19 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.PriorityQueue;
 
+import org.itmo.distributed.dto.SentenceSpan;
+
 public class SentenceSortService {
 
-    public static List<String> mergeSortedSentences(List<List<String>> lists) {
-        List<String> result = new ArrayList<>();
+    public static List<SentenceSpan> mergeSortedSentences(List<List<SentenceSpan>> lists) {
+        List<SentenceSpan> result = new ArrayList<>();
         if (lists == null || lists.isEmpty()) return result;
 
         PriorityQueue<SentenceIterator> queue = new PriorityQueue<>(
                 Comparator.comparingInt(it -> it.current.length())
         );
 
-        for (List<String> list : lists) {
+        for (List<SentenceSpan> list : lists) {
             if (list != null && !list.isEmpty()) {
                 queue.add(new SentenceIterator(list.iterator()));
             }
@@ -34,10 +36,10 @@ public class SentenceSortService {
     }
 
     private static class SentenceIterator {
-        final Iterator<String> iterator;
-        String current;
+        final Iterator<SentenceSpan> iterator;
+        SentenceSpan current;
 
-        SentenceIterator(Iterator<String> iterator) {
+        SentenceIterator(Iterator<SentenceSpan> iterator) {
             this.iterator = iterator;
             if (iterator.hasNext()) {
                 this.current = iterator.next();
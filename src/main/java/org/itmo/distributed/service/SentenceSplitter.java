@@ -0,0 +1,53 @@
+package org.itmo.distributed.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.regex.Pattern;
+
+import edu.stanford.nlp.ling.CoreAnnotations;
+import edu.stanford.nlp.pipeline.Annotation;
+import edu.stanford.nlp.pipeline.StanfordCoreNLP;
+import edu.stanford.nlp.util.CoreMap;
+
+/**
+ * Sentence splitter safe to share between threads: every thread annotates with its own pipeline.
+ */
+public class SentenceSplitter {
+    private static final Pattern PARAGRAPH_BREAK = Pattern.compile("\\n\\s*\\n");
+
+    private final ThreadLocal<StanfordCoreNLP> pipelines = ThreadLocal.withInitial(SentenceSplitter::createPipeline);
+
+    public List<Sentence> split(String text) {
+        List<Sentence> sentences = new ArrayList<>();
+        if (text.isBlank()) {
+            return sentences;
+        }
+
+        Annotation document = new Annotation(text);
+        pipelines.get().annotate(document);
+
+        List<CoreMap> annotated = document.get(CoreAnnotations.SentencesAnnotation.class);
+        for (int i = 0; i < annotated.size(); i++) {
+            CoreMap sentence = annotated.get(i);
+            int end = sentence.get(CoreAnnotations.CharacterOffsetEndAnnotation.class);
+            int nextBegin = i + 1 < annotated.size()
+                    ? annotated.get(i + 1).get(CoreAnnotations.CharacterOffsetBeginAnnotation.class)
+                    : text.length();
+            boolean endsParagraph = PARAGRAPH_BREAK.matcher(text).region(end, nextBegin).find();
+
+            sentences.add(new Sentence(
+                    sentence.toString(),
+                    sentence.get(CoreAnnotations.TokensAnnotation.class).size(),
+                    endsParagraph
+            ));
+        }
+        return sentences;
+    }
+
+    private static StanfordCoreNLP createPipeline() {
+        Properties props = new Properties();
+        props.setProperty("annotators", "tokenize, ssplit");
+        return new StanfordCoreNLP(props);
+    }
+}
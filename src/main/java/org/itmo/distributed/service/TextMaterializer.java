@@ -0,0 +1,28 @@
+package org.itmo.distributed.service;
+
+import java.util.List;
+
+import org.itmo.distributed.dto.SentenceSpan;
+import org.itmo.distributed.dto.TextEdit;
+
+public class TextMaterializer {
+
+    public static String applyEdits(String text, List<TextEdit> edits) {
+        if (edits == null || edits.isEmpty()) {
+            return text;
+        }
+
+        StringBuilder sb = new StringBuilder(text.length());
+        int previousEnd = 0;
+        for (TextEdit edit : edits) {
+            sb.append(text, previousEnd, edit.start()).append(TextEdit.NAME_REPLACEMENT);
+            previousEnd = edit.end();
+        }
+        sb.append(text, previousEnd, text.length());
+        return sb.toString();
+    }
+
+    public static String sentence(String text, SentenceSpan span) {
+        return text.substring(span.start(), span.end());
+    }
+}
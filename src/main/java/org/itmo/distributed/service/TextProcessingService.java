@@ -2,10 +2,10 @@ package org.itmo.distributed.service;
 
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import edu.stanford.nlp.ling.CoreAnnotations;
 import edu.stanford.nlp.ling.CoreLabel;
@@ -15,8 +15,21 @@ import edu.stanford.nlp.pipeline.StanfordCoreNLP;
 import edu.stanford.nlp.sentiment.SentimentCoreAnnotations;
 import edu.stanford.nlp.trees.Tree;
 import edu.stanford.nlp.util.CoreMap;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.itmo.distributed.dto.Analysis;
+import org.itmo.distributed.dto.JobOptions;
+import org.itmo.distributed.dto.NameEngine;
 import org.itmo.distributed.dto.ResultMessage;
+import org.itmo.distributed.dto.SentenceSpan;
+import org.itmo.distributed.dto.SentimentAgreement;
+import org.itmo.distributed.dto.SentimentEngine;
 import org.itmo.distributed.dto.TaskMessage;
+import org.itmo.distributed.dto.TextEdit;
+import org.itmo.distributed.util.WordCounter;
+import org.springframework.amqp.core.Queue;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
@@ -24,58 +37,187 @@ import org.springframework.stereotype.Service;
 @Profile("worker")
 public class TextProcessingService {
     private static final String NAMED_ENTITY_TOKEN = "PERSON";
-    private static final String NAMED_ENTITY_REPLACEMENT = "[NAME]";
 
     private static final int NEGATIVE_SENTIMENT = 1;
     private static final int POSITIVE_SENTIMENT = 3;
 
-    private final StanfordCoreNLP nlp;
+    private final PipelinePool pipelines;
+    private final CombinerService combiner;
+    private final ResultCache resultCache;
+    private final LexiconSentiment lexiconSentiment;
+    private final GazetteerNames gazetteerNames;
+    private final String countQueue;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> annotatorTimers = new ConcurrentHashMap<>();
 
-    public TextProcessingService() {
-        Properties props = new Properties();
-        props.setProperty("annotators", "tokenize, ssplit, pos, lemma, ner, parse, sentiment");
-        this.nlp = new StanfordCoreNLP(props);
+    public TextProcessingService(@Value("${app.worker.concurrency}") int concurrency,
+                                 CombinerService combiner,
+                                 ResultCache resultCache,
+                                 LexiconSentiment lexiconSentiment,
+                                 GazetteerNames gazetteerNames,
+                                 @Qualifier("countRequestQueue") Queue countRequestQueue,
+                                 MeterRegistry meterRegistry) {
+        this.pipelines = new PipelinePool(concurrency);
+        this.combiner = combiner;
+        this.resultCache = resultCache;
+        this.lexiconSentiment = lexiconSentiment;
+        this.gazetteerNames = gazetteerNames;
+        this.countQueue = countRequestQueue.getName();
+        this.meterRegistry = meterRegistry;
     }
 
     public ResultMessage process(TaskMessage task) {
+        long startTime = System.currentTimeMillis();
+        JobOptions options = task.options();
         String text = task.content();
         if (text == null || text.isBlank()) {
-            return new ResultMessage(task.id(), task.chunkIndex(), task.totalChunks(), 0, Map.of(), 0, 0, "", List.of());
+            return new ResultMessage(task.id(), task.chunkIndex(), task.totalChunks(), options, 0, new WordCounter(), 0, null, 0, 0, null, null, List.of(), List.of(), 0,
+                    task.jobStartedAt(), task.sentAt());
         }
 
-        Annotation document = new Annotation(text);
-        nlp.annotate(document);
+        String cacheKey = resultCache.key(text, options.analysisVariant());
+        ResultMessage analysed = resultCache.get(cacheKey);
+        if (analysed == null) {
+            analysed = analyse(task);
+            resultCache.put(cacheKey, analysed);
+        }
+
+        WordCounter wordFrequencies = analysed.wordFrequencies();
+        long residualBound = 0;
+        if (options.usesCombiner()) {
+            CombinerService.Combined combined = combiner.combine(task.id(), task.chunkIndex(), wordFrequencies, options.combinerTopK());
+            wordFrequencies = combined.reported();
+            residualBound = combined.residualBound();
+        }
+
+        boolean names = options.requires(Analysis.NAME_REPLACEMENT);
+        boolean sort = options.requires(Analysis.SENTENCE_SORT);
+
+        return new ResultMessage(
+                task.id(),
+                task.chunkIndex(),
+                task.totalChunks(),
+                options,
+                analysed.wordCount(),
+                wordFrequencies,
+                residualBound,
+                residualBound > 0 ? countQueue : null,
+                analysed.positiveCount(),
+                analysed.negativeCount(),
+                analysed.sentimentAgreement(),
+                names || sort ? text : null,
+                analysed.nameEdits(),
+                reindex(analysed.sortedSentences(), task.chunkIndex()),
+                System.currentTimeMillis() - startTime,
+                task.jobStartedAt(),
+                task.sentAt()
+        );
+    }
+
+    /**
+     * Runs the NLP pipeline over a chunk. The result holds the chunk's full word frequencies and no text,
+     * so it can be cached by content and reused for any task with the same analyses.
+     */
+    private ResultMessage analyse(TaskMessage task) {
+        JobOptions options = task.options();
+        Annotation document = annotate(task.content(), annotatorsFor(options));
 
         List<CoreLabel> tokens = document.get(CoreAnnotations.TokensAnnotation.class);
 
         long wordCount = 0;
-        Map<String, Integer> wordFrequencies = new HashMap<>();
+        WordCounter wordFrequencies = new WordCounter();
+        boolean countFrequencies = options.requires(Analysis.TOP_N);
 
-        for (CoreLabel token : tokens) {
-            String word = token.word();
-            if (isWord(word)) {
-                wordCount++;
-                wordFrequencies.merge(word.toLowerCase(), 1, Integer::sum);
+        if (countFrequencies || options.requires(Analysis.WORD_COUNT)) {
+            for (CoreLabel token : tokens) {
+                String word = token.word();
+                if (isWord(word)) {
+                    wordCount++;
+                    if (countFrequencies) {
+                        wordFrequencies.incrementLowerCase(word);
+                    }
+                }
             }
         }
 
-        SentimentStats sentiment = calculateSentiment(document);
+        SentimentStats sentiment = options.requires(Analysis.SENTIMENT)
+                ? calculateSentiment(document, options.sentimentEngine())
+                : new SentimentStats(0, 0, null);
 
-        String modifiedText = replaceNames(text, tokens);
+        List<TextEdit> nameEdits = !options.requires(Analysis.NAME_REPLACEMENT) ? List.of()
+                : options.nameEngine() == NameEngine.GAZETTEER ? gazetteerNames.findNames(tokens)
+                : findNames(tokens);
 
-        List<String> sortedSentences = sortSentences(document);
+        List<SentenceSpan> sortedSentences = options.requires(Analysis.SENTENCE_SORT)
+                ? sortSentences(task.chunkIndex(), document)
+                : List.of();
 
-        return new ResultMessage(
-                task.id(),
-                task.chunkIndex(),
-                task.totalChunks(),
-                wordCount,
-                wordFrequencies,
-                sentiment.positive,
-                sentiment.negative,
-                modifiedText,
-                sortedSentences
-        );
+        return new ResultMessage(task.id(), task.chunkIndex(), task.totalChunks(), options, wordCount, wordFrequencies, 0, null,
+                sentiment.positive, sentiment.negative, sentiment.agreement, null, nameEdits, sortedSentences, 0, 0, 0);
+    }
+
+    private static List<SentenceSpan> reindex(List<SentenceSpan> spans, int chunkIndex) {
+        if (spans.isEmpty() || spans.getFirst().chunkIndex() == chunkIndex) {
+            return spans;
+        }
+        List<SentenceSpan> reindexed = new ArrayList<>(spans.size());
+        for (SentenceSpan span : spans) {
+            reindexed.add(new SentenceSpan(chunkIndex, span.start(), span.end()));
+        }
+        return reindexed;
+    }
+
+    private Annotation annotate(String text, List<String> stages) {
+        Annotation document = new Annotation(text);
+        for (String annotators : stages) {
+            StanfordCoreNLP pipeline;
+            try {
+                pipeline = pipelines.acquire(annotators);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a pipeline", e);
+            }
+
+            long startedAt = System.nanoTime();
+            try {
+                pipeline.annotate(document);
+            } finally {
+                pipelines.release(annotators, pipeline);
+            }
+            annotatorTimer(annotators).record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+        return document;
+    }
+
+    private Timer annotatorTimer(String annotators) {
+        // the whole stage, "tokenize,ssplit" rather than its first annotator
+        return annotatorTimers.computeIfAbsent(annotators, key -> Timer.builder("text.annotator")
+                .tag("annotator", key.replaceAll("\\s+", ""))
+                .register(meterRegistry));
+    }
+
+    /**
+     * Returns the pipeline stages a job needs, one annotator each so that every annotator is timed
+     * separately; tokenize and ssplit form one stage.
+     */
+    static List<String> annotatorsFor(JobOptions options) {
+        boolean sentiment = options.requires(Analysis.SENTIMENT) && options.sentimentEngine() != SentimentEngine.LEXICON;
+        boolean names = options.requires(Analysis.NAME_REPLACEMENT) && options.nameEngine() == NameEngine.NER;
+
+        List<String> stages = new ArrayList<>();
+        stages.add("tokenize, ssplit");
+        if (sentiment || names) {
+            stages.add("pos");
+        }
+        if (names) {
+            stages.add("lemma");
+            stages.add("ner");
+        }
+        if (sentiment) {
+            stages.add("parse");
+            stages.add("sentiment");
+        }
+        return stages;
     }
 
     private boolean isWord(String token) {
@@ -87,55 +229,75 @@ public class TextProcessingService {
         return false;
     }
 
-    private SentimentStats calculateSentiment(Annotation document) {
+    private SentimentStats calculateSentiment(Annotation document, SentimentEngine engine) {
         int positive = 0;
         int negative = 0;
+        int lexiconPositive = 0;
+        int lexiconNegative = 0;
+        int agreed = 0;
+        int compared = 0;
 
         for (CoreMap sentence : document.get(CoreAnnotations.SentencesAnnotation.class)) {
-            Tree tree = sentence.get(SentimentCoreAnnotations.SentimentAnnotatedTree.class);
-            int score = RNNCoreAnnotations.getPredictedClass(tree);
+            int modelClass = 0;
+            if (engine != SentimentEngine.LEXICON) {
+                Tree tree = sentence.get(SentimentCoreAnnotations.SentimentAnnotatedTree.class);
+                int score = RNNCoreAnnotations.getPredictedClass(tree);
+                modelClass = score <= NEGATIVE_SENTIMENT ? -1 : score >= POSITIVE_SENTIMENT ? 1 : 0;
+            }
 
-            if (score <= NEGATIVE_SENTIMENT) {
+            int lexiconClass = 0;
+            if (engine != SentimentEngine.RNN) {
+                lexiconClass = Integer.signum(lexiconSentiment.score(sentence.get(CoreAnnotations.TokensAnnotation.class)));
+                if (lexiconClass > 0) {
+                    lexiconPositive++;
+                } else if (lexiconClass < 0) {
+                    lexiconNegative++;
+                }
+            }
+
+            int sentenceClass = engine == SentimentEngine.LEXICON ? lexiconClass : modelClass;
+            if (sentenceClass < 0) {
                 negative++;
-            } else if (score >= POSITIVE_SENTIMENT) {
+            } else if (sentenceClass > 0) {
                 positive++;
             }
+
+            compared++;
+            if (lexiconClass == modelClass) {
+                agreed++;
+            }
         }
-        return new SentimentStats(positive, negative);
-    }
 
-    private String replaceNames(String originalText, List<CoreLabel> tokens) {
-        StringBuilder sb = new StringBuilder();
-        int previousEnd = 0;
+        SentimentAgreement agreement = engine == SentimentEngine.AGREEMENT
+                ? new SentimentAgreement(lexiconPositive, lexiconNegative, agreed, compared)
+                : null;
+        return new SentimentStats(positive, negative, agreement);
+    }
 
+    private List<TextEdit> findNames(List<CoreLabel> tokens) {
+        List<TextEdit> edits = new ArrayList<>();
         for (CoreLabel token : tokens) {
             String ne = token.get(CoreAnnotations.NamedEntityTagAnnotation.class);
-            int start = token.beginPosition();
-            int end = token.endPosition();
-
-            sb.append(originalText, previousEnd, start);
-
             if (NAMED_ENTITY_TOKEN.equals(ne)) {
-                sb.append(NAMED_ENTITY_REPLACEMENT);
-            } else {
-                sb.append(originalText, start, end);
+                edits.add(new TextEdit(token.beginPosition(), token.endPosition()));
             }
-            previousEnd = end;
         }
-
-        sb.append(originalText.substring(previousEnd));
-        return sb.toString();
+        return edits;
     }
 
-    private List<String> sortSentences(Annotation document) {
-        List<String> sentences = new ArrayList<>();
+    private List<SentenceSpan> sortSentences(int chunkIndex, Annotation document) {
+        List<SentenceSpan> sentences = new ArrayList<>();
         for (CoreMap sentence : document.get(CoreAnnotations.SentencesAnnotation.class)) {
-            sentences.add(sentence.toString());
+            sentences.add(new SentenceSpan(
+                    chunkIndex,
+                    sentence.get(CoreAnnotations.CharacterOffsetBeginAnnotation.class),
+                    sentence.get(CoreAnnotations.CharacterOffsetEndAnnotation.class)
+            ));
         }
-        sentences.sort(Comparator.comparingInt(String::length));
+        sentences.sort(Comparator.comparingInt(SentenceSpan::length));
         return sentences;
     }
 
-    private record SentimentStats(int positive, int negative) {
+    private record SentimentStats(int positive, int negative, SentimentAgreement agreement) {
     }
 }
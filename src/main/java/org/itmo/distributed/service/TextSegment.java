@@ -0,0 +1,6 @@
+package org.itmo.distributed.service;
+
+import java.nio.file.Path;
+
+public record TextSegment(Path file, long offset, int length) {
+}
@@ -0,0 +1,72 @@
+package org.itmo.distributed.service.chunking;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.itmo.distributed.service.Sentence;
+
+/**
+ * Character budget tuned so that a chunk takes about {@code targetChunkMs} on a worker.
+ * The per-character cost is an exponentially weighted average over reported chunk timings.
+ * Each job is chunked by its own instance from {@link #newJob()}, starting from the initial budget.
+ */
+public class AdaptiveChunking implements ChunkingStrategy {
+    private static final double SMOOTHING = 0.2;
+    // shorter timings come from results served out of the worker's cache and say nothing about the text
+    private static final long MIN_TIMED_MS = 5;
+
+    private final long targetChunkMs;
+    private final int initialCharacters;
+    private final int minCharacters;
+    private final int maxCharacters;
+    private final Map<Integer, Integer> pendingSizes = new HashMap<>();
+
+    private volatile int budget;
+    private double msPerCharacter = 0;
+
+    public AdaptiveChunking(int initialCharacters, int minCharacters, int maxCharacters, long targetChunkMs) {
+        this.budget = initialCharacters;
+        this.initialCharacters = initialCharacters;
+        this.minCharacters = minCharacters;
+        this.maxCharacters = maxCharacters;
+        this.targetChunkMs = targetChunkMs;
+    }
+
+    @Override
+    public boolean shouldClose(int sentences, int characters, int tokens, Sentence last) {
+        return characters >= budget;
+    }
+
+    @Override
+    public synchronized void onChunkSent(int chunkIndex, int characters) {
+        pendingSizes.put(chunkIndex, characters);
+    }
+
+    @Override
+    public synchronized void onChunkProcessed(int chunkIndex, long processingTimeMs) {
+        Integer characters = pendingSizes.remove(chunkIndex);
+        if (characters == null || characters == 0 || processingTimeMs < MIN_TIMED_MS) {
+            return;
+        }
+
+        double observed = (double) processingTimeMs / characters;
+        msPerCharacter = msPerCharacter == 0 ? observed : SMOOTHING * observed + (1 - SMOOTHING) * msPerCharacter;
+
+        long tuned = Math.round(targetChunkMs / msPerCharacter);
+        budget = (int) Math.max(minCharacters, Math.min(maxCharacters, tuned));
+    }
+
+    @Override
+    public ChunkingStrategy newJob() {
+        return new AdaptiveChunking(initialCharacters, minCharacters, maxCharacters, targetChunkMs);
+    }
+
+    public int currentBudget() {
+        return budget;
+    }
+
+    @Override
+    public String describe() {
+        return "adaptive " + minCharacters + ".." + maxCharacters + " characters targeting " + targetChunkMs + "ms";
+    }
+}
@@ -0,0 +1,21 @@
+package org.itmo.distributed.service.chunking;
+
+import org.itmo.distributed.service.Sentence;
+
+public class CharacterBudgetChunking implements ChunkingStrategy {
+    private final int charactersPerChunk;
+
+    public CharacterBudgetChunking(int charactersPerChunk) {
+        this.charactersPerChunk = charactersPerChunk;
+    }
+
+    @Override
+    public boolean shouldClose(int sentences, int characters, int tokens, Sentence last) {
+        return characters >= charactersPerChunk;
+    }
+
+    @Override
+    public String describe() {
+        return "~" + charactersPerChunk + " characters";
+    }
+}
@@ -0,0 +1,28 @@
+package org.itmo.distributed.service.chunking;
+
+import org.itmo.distributed.service.Sentence;
+
+/**
+ * Decides where the producer closes a chunk. Implementations may keep state across a job and
+ * adapt from the processing time workers report back for earlier chunks.
+ */
+public interface ChunkingStrategy {
+
+    boolean shouldClose(int sentences, int characters, int tokens, Sentence last);
+
+    default void onChunkSent(int chunkIndex, int characters) {
+    }
+
+    default void onChunkProcessed(int chunkIndex, long processingTimeMs) {
+    }
+
+    /**
+     * The strategy to chunk one job with. The configured strategy is shared by every job the producer
+     * runs, so a strategy that keeps state returns a fresh instance here; stateless ones return themselves.
+     */
+    default ChunkingStrategy newJob() {
+        return this;
+    }
+
+    String describe();
+}
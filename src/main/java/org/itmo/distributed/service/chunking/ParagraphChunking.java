@@ -0,0 +1,23 @@
+package org.itmo.distributed.service.chunking;
+
+import org.itmo.distributed.service.Sentence;
+
+public class ParagraphChunking implements ChunkingStrategy {
+    private final int minCharacters;
+    private final int maxCharacters;
+
+    public ParagraphChunking(int minCharacters, int maxCharacters) {
+        this.minCharacters = minCharacters;
+        this.maxCharacters = maxCharacters;
+    }
+
+    @Override
+    public boolean shouldClose(int sentences, int characters, int tokens, Sentence last) {
+        return (last.endsParagraph() && characters >= minCharacters) || characters >= maxCharacters;
+    }
+
+    @Override
+    public String describe() {
+        return "paragraphs of " + minCharacters + ".." + maxCharacters + " characters";
+    }
+}
@@ -0,0 +1,21 @@
+package org.itmo.distributed.service.chunking;
+
+import org.itmo.distributed.service.Sentence;
+
+public class SentenceCountChunking implements ChunkingStrategy {
+    private final int sentencesPerChunk;
+
+    public SentenceCountChunking(int sentencesPerChunk) {
+        this.sentencesPerChunk = sentencesPerChunk;
+    }
+
+    @Override
+    public boolean shouldClose(int sentences, int characters, int tokens, Sentence last) {
+        return sentences >= sentencesPerChunk;
+    }
+
+    @Override
+    public String describe() {
+        return "~" + sentencesPerChunk + " sentences";
+    }
+}
@@ -0,0 +1,21 @@
+package org.itmo.distributed.service.chunking;
+
+import org.itmo.distributed.service.Sentence;
+
+public class TokenBudgetChunking implements ChunkingStrategy {
+    private final int tokensPerChunk;
+
+    public TokenBudgetChunking(int tokensPerChunk) {
+        this.tokensPerChunk = tokensPerChunk;
+    }
+
+    @Override
+    public boolean shouldClose(int sentences, int characters, int tokens, Sentence last) {
+        return tokens >= tokensPerChunk;
+    }
+
+    @Override
+    public String describe() {
+        return "~" + tokensPerChunk + " tokens";
+    }
+}
@@ -0,0 +1,91 @@
+package org.itmo.distributed.service.topn;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.itmo.distributed.util.BoundedTopN;
+import org.itmo.distributed.util.CountMinSketch;
+import org.itmo.distributed.util.WordCounter;
+
+/**
+ * Bounded-memory top-N: every accumulator keeps a Count-Min Sketch plus a pruned set of heavy-hitter
+ * candidates. At finalization the sketches are summed and the union of candidates is ranked by the
+ * merged estimate, so counts may be overestimated but memory does not grow with the vocabulary.
+ */
+public class ApproximateTopN implements TopNEngine {
+    private final int width;
+    private final int depth;
+    private final int candidates;
+
+    public ApproximateTopN(int width, int depth, int candidates) {
+        if (candidates <= 0) {
+            throw new IllegalArgumentException("Candidate count must be positive: " + candidates);
+        }
+        this.width = width;
+        this.depth = depth;
+        this.candidates = candidates;
+    }
+
+    @Override
+    public Accumulator newAccumulator() {
+        return new Sketch(new CountMinSketch(width, depth), candidates);
+    }
+
+    @Override
+    public Map<String, Long> topN(Collection<Accumulator> partials, int n) {
+        CountMinSketch merged = new CountMinSketch(width, depth);
+        Set<String> words = new HashSet<>();
+        for (Accumulator partial : partials) {
+            Sketch sketch = (Sketch) partial;
+            merged.merge(sketch.sketch);
+            words.addAll(sketch.candidates.keySet());
+        }
+
+        BoundedTopN top = new BoundedTopN(n);
+        for (String word : words) {
+            top.offer(word, merged.estimate(word));
+        }
+        return top.toMap();
+    }
+
+    private static class Sketch implements Accumulator {
+        final CountMinSketch sketch;
+        final Map<String, Long> candidates = new HashMap<>();
+        final int capacity;
+        long admissionThreshold = 0;
+
+        Sketch(CountMinSketch sketch, int capacity) {
+            this.sketch = sketch;
+            this.capacity = capacity;
+        }
+
+        @Override
+        public void add(WordCounter frequencies) {
+            frequencies.forEach((word, count) -> {
+                long estimate = sketch.add(word, count);
+                if (estimate >= admissionThreshold || candidates.containsKey(word)) {
+                    candidates.put(word, estimate);
+                    if (candidates.size() > capacity * 2) {
+                        prune();
+                    }
+                }
+            });
+        }
+
+        private void prune() {
+            List<Map.Entry<String, Long>> entries = new ArrayList<>(candidates.entrySet());
+            entries.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+
+            candidates.clear();
+            for (int i = 0; i < capacity; i++) {
+                candidates.put(entries.get(i).getKey(), entries.get(i).getValue());
+            }
+            admissionThreshold = entries.get(capacity - 1).getValue();
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package org.itmo.distributed.service.topn;
+
+/**
+ * What a combined chunk left out: no unreported word occurs more than {@code residual} times,
+ * and the worker answering for the chunk listens on {@code countQueue}.
+ */
+public record ChunkBound(long residual, String countQueue) {
+}
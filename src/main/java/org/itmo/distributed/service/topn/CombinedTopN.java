@@ -0,0 +1,53 @@
+package org.itmo.distributed.service.topn;
+
+import java.util.Collection;
+import java.util.Map;
+
+import org.itmo.distributed.util.BoundedTopN;
+import org.itmo.distributed.util.WordCounter;
+
+/**
+ * Exact top-N over results pre-aggregated by the worker combiner. Besides the partial sums it tracks
+ * how many chunks reported each word, which bounds the count a word can still be missing.
+ */
+public class CombinedTopN implements TopNEngine {
+
+    @Override
+    public Accumulator newAccumulator() {
+        return new Partial();
+    }
+
+    @Override
+    public Map<String, Long> topN(Collection<Accumulator> partials, int n) {
+        BoundedTopN top = new BoundedTopN(n);
+        merge(partials).lower.forEach(top::offer);
+        return top.toMap();
+    }
+
+    public TopNRefinement refine(String taskId, Collection<Accumulator> partials,
+                                 Map<Integer, ChunkBound> bounds, int totalChunks, int n) {
+        Partial merged = merge(partials);
+        return new TopNRefinement(taskId, n, totalChunks, merged.lower, merged.reports, bounds);
+    }
+
+    private static Partial merge(Collection<Accumulator> partials) {
+        Partial merged = new Partial();
+        for (Accumulator accumulator : partials) {
+            Partial partial = (Partial) accumulator;
+            merged.lower.addAll(partial.lower);
+            merged.reports.addAll(partial.reports);
+        }
+        return merged;
+    }
+
+    private static class Partial implements Accumulator {
+        final WordCounter lower = new WordCounter();
+        final WordCounter reports = new WordCounter();
+
+        @Override
+        public void add(WordCounter frequencies) {
+            lower.addAll(frequencies);
+            frequencies.forEach((word, count) -> reports.add(word, 1));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package org.itmo.distributed.service.topn;
+
+import java.util.Collection;
+import java.util.Map;
+
+import org.itmo.distributed.util.BoundedTopN;
+import org.itmo.distributed.util.WordCounter;
+
+public class ExactTopN implements TopNEngine {
+
+    @Override
+    public Accumulator newAccumulator() {
+        return new Counts();
+    }
+
+    @Override
+    public Map<String, Long> topN(Collection<Accumulator> partials, int n) {
+        WordCounter merged = new WordCounter();
+        for (Accumulator partial : partials) {
+            merged.addAll(((Counts) partial).counter);
+        }
+
+        BoundedTopN top = new BoundedTopN(n);
+        merged.forEach(top::offer);
+        return top.toMap();
+    }
+
+    private static class Counts implements Accumulator {
+        final WordCounter counter = new WordCounter();
+
+        @Override
+        public void add(WordCounter frequencies) {
+            counter.addAll(frequencies);
+        }
+    }
+}
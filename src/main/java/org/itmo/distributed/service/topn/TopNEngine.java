@@ -0,0 +1,21 @@
+package org.itmo.distributed.service.topn;
+
+import java.util.Collection;
+import java.util.Map;
+
+import org.itmo.distributed.util.WordCounter;
+
+/**
+ * Computes the most frequent words of a job. Each aggregator listener thread feeds its own
+ * {@link Accumulator}; the partial accumulators are combined once when the job is finalized.
+ */
+public interface TopNEngine {
+
+    Accumulator newAccumulator();
+
+    Map<String, Long> topN(Collection<Accumulator> partials, int n);
+
+    interface Accumulator {
+        void add(WordCounter frequencies);
+    }
+}
@@ -0,0 +1,176 @@
+package org.itmo.distributed.service.topn;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.itmo.distributed.dto.CountReply;
+import org.itmo.distributed.dto.CountRequest;
+import org.itmo.distributed.util.BoundedTopN;
+import org.itmo.distributed.util.WordCounter;
+
+/**
+ * Threshold-algorithm completion of a combined top-N (in the spirit of TPUT).
+ * <ol>
+ *     <li>With {@code T} the N-th partial sum, every chunk that may still hide a word occurring
+ *     {@code ceil(T / chunks)} times reports all such words. Afterwards no unseen word can reach {@code T}.</li>
+ *     <li>Words whose upper bound still reaches {@code T} and whose sum is incomplete are counted
+ *     exactly by every chunk that has unreported words.</li>
+ * </ol>
+ * Rounds are skipped when nothing is borderline. If a worker no longer has a chunk's vocabulary or
+ * the refinement expires, the result is reported as inexact.
+ */
+public class TopNRefinement {
+    private final String taskId;
+    private final int n;
+    private final int totalChunks;
+    private final WordCounter lower;
+    private final WordCounter reports;
+    private final Map<Integer, ChunkBound> bounds;
+    private final Set<Integer> awaiting = new HashSet<>();
+    private Phase phase = Phase.THRESHOLD;
+    private boolean exact = true;
+
+    TopNRefinement(String taskId, int n, int totalChunks, WordCounter lower, WordCounter reports,
+                   Map<Integer, ChunkBound> bounds) {
+        this.taskId = taskId;
+        this.n = n;
+        this.totalChunks = totalChunks;
+        this.lower = lower;
+        this.reports = reports;
+        this.bounds = new HashMap<>(bounds);
+    }
+
+    public synchronized List<Addressed> start() {
+        return nextRound();
+    }
+
+    public synchronized List<Addressed> onReply(CountReply reply) {
+        if (!awaiting.remove(reply.chunkIndex())) {
+            return List.of();
+        }
+
+        if (!reply.available()) {
+            exact = false;
+            bounds.remove(reply.chunkIndex());
+        } else {
+            reply.counts().forEach((word, count) -> {
+                lower.add(word, count);
+                reports.add(word, 1);
+            });
+            ChunkBound bound = bounds.get(reply.chunkIndex());
+            if (reply.residualBound() > 0) {
+                bounds.put(reply.chunkIndex(), new ChunkBound(reply.residualBound(), bound.countQueue()));
+            } else {
+                bounds.remove(reply.chunkIndex());
+            }
+        }
+
+        return awaiting.isEmpty() ? nextRound() : List.of();
+    }
+
+    public synchronized boolean expire() {
+        if (phase == Phase.DONE && awaiting.isEmpty()) {
+            return false;
+        }
+        phase = Phase.DONE;
+        awaiting.clear();
+        exact = false;
+        return true;
+    }
+
+    public synchronized boolean isDone() {
+        return phase == Phase.DONE && awaiting.isEmpty();
+    }
+
+    public synchronized boolean isExact() {
+        return exact;
+    }
+
+    public synchronized Map<String, Long> result() {
+        BoundedTopN top = new BoundedTopN(n);
+        lower.forEach(top::offer);
+        return top.toMap();
+    }
+
+    private List<Addressed> nextRound() {
+        if (phase == Phase.THRESHOLD) {
+            phase = Phase.EXACT;
+            long threshold = nthLowerBound();
+            if (threshold > 0) {
+                long minCount = Math.ceilDiv(threshold, (long) totalChunks);
+                List<Addressed> requests = new ArrayList<>();
+                bounds.forEach((chunkIndex, bound) -> {
+                    if (bound.residual() >= minCount) {
+                        requests.add(request(chunkIndex, bound, List.of(), minCount));
+                    }
+                });
+                if (!requests.isEmpty()) {
+                    return requests;
+                }
+            }
+        }
+
+        if (phase == Phase.EXACT) {
+            phase = Phase.DONE;
+            List<String> candidates = borderlineWords(nthLowerBound());
+            if (!candidates.isEmpty()) {
+                List<Addressed> requests = new ArrayList<>();
+                bounds.forEach((chunkIndex, bound) -> requests.add(request(chunkIndex, bound, candidates, 0)));
+                return requests;
+            }
+        }
+
+        return List.of();
+    }
+
+    private List<String> borderlineWords(long threshold) {
+        long maxResidual = 0;
+        for (ChunkBound bound : bounds.values()) {
+            maxResidual = Math.max(maxResidual, bound.residual());
+        }
+
+        long residual = maxResidual;
+        int residualChunks = bounds.size();
+        List<String> candidates = new ArrayList<>();
+        lower.forEach((word, count) -> {
+            long missingChunks = Math.min(residualChunks, totalChunks - reports.get(word));
+            long upper = count + missingChunks * residual;
+            if (upper > count && upper >= threshold) {
+                candidates.add(word);
+            }
+        });
+        return candidates;
+    }
+
+    private long nthLowerBound() {
+        BoundedTopN top = new BoundedTopN(n);
+        lower.forEach(top::offer);
+        Map<String, Long> best = top.toMap();
+        if (best.size() < n) {
+            return 0;
+        }
+        long last = 0;
+        for (long count : best.values()) {
+            last = count;
+        }
+        return last;
+    }
+
+    private Addressed request(int chunkIndex, ChunkBound bound, List<String> words, long minCount) {
+        awaiting.add(chunkIndex);
+        return new Addressed(bound.countQueue(), new CountRequest(taskId, chunkIndex, words, minCount));
+    }
+
+    public record Addressed(String queue, CountRequest request) {
+    }
+
+    private enum Phase {
+        THRESHOLD,
+        EXACT,
+        DONE
+    }
+}
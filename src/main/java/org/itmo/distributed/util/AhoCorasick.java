@@ -0,0 +1,132 @@
+package org.itmo.distributed.util;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+
+/**
+ * Case-insensitive Aho-Corasick automaton over characters, flattened into arrays like {@link LexiconTrie}.
+ * Each pattern carries a positive value; {@link #output(int)} is the largest value of any pattern ending
+ * at a state, so the caller feeds characters one at a time and checks for matches wherever it needs to.
+ */
+public final class AhoCorasick {
+    public static final int ROOT = 0;
+
+    private final int[] edgeStart;
+    private final char[] edgeChar;
+    private final int[] edgeTarget;
+    private final int[] fail;
+    private final int[] output;
+
+    private AhoCorasick(int[] edgeStart, char[] edgeChar, int[] edgeTarget, int[] fail, int[] output) {
+        this.edgeStart = edgeStart;
+        this.edgeChar = edgeChar;
+        this.edgeTarget = edgeTarget;
+        this.fail = fail;
+        this.output = output;
+    }
+
+    public static AhoCorasick of(Map<String, Integer> patterns) {
+        Node root = new Node();
+        int nodes = 1;
+        for (Map.Entry<String, Integer> pattern : patterns.entrySet()) {
+            if (pattern.getValue() <= 0) {
+                throw new IllegalArgumentException("Pattern value must be positive: " + pattern.getKey());
+            }
+            Node node = root;
+            for (char c : pattern.getKey().toLowerCase().toCharArray()) {
+                Node child = node.children.get(c);
+                if (child == null) {
+                    child = new Node();
+                    node.children.put(c, child);
+                    nodes++;
+                }
+                node = child;
+            }
+            node.value = Math.max(node.value, pattern.getValue());
+        }
+
+        int[] edgeStart = new int[nodes + 1];
+        char[] edgeChar = new char[nodes - 1];
+        int[] edgeTarget = new int[nodes - 1];
+        int[] output = new int[nodes];
+
+        Queue<Node> queue = new ArrayDeque<>();
+        queue.add(root);
+        int nextId = 1;
+        int edge = 0;
+        for (int id = 0; id < nodes; id++) {
+            Node node = queue.remove();
+            output[id] = node.value;
+            edgeStart[id] = edge;
+            for (Map.Entry<Character, Node> child : node.children.entrySet()) {
+                edgeChar[edge] = child.getKey();
+                edgeTarget[edge] = nextId++;
+                edge++;
+                queue.add(child.getValue());
+            }
+        }
+        edgeStart[nodes] = edge;
+
+        // node ids are in breadth-first order, so every failure target is finished before it is used
+        AhoCorasick automaton = new AhoCorasick(edgeStart, edgeChar, edgeTarget, new int[nodes], output);
+        for (int node = 0; node < nodes; node++) {
+            for (int e = edgeStart[node]; e < edgeStart[node + 1]; e++) {
+                int child = edgeTarget[e];
+                int target = ROOT;
+                if (node != ROOT) {
+                    int state = automaton.fail[node];
+                    while (state != ROOT && automaton.child(state, edgeChar[e]) < 0) {
+                        state = automaton.fail[state];
+                    }
+                    int next = automaton.child(state, edgeChar[e]);
+                    target = next >= 0 ? next : ROOT;
+                }
+                automaton.fail[child] = target;
+                output[child] = Math.max(output[child], output[target]);
+            }
+        }
+        return automaton;
+    }
+
+    public int next(int state, char c) {
+        char lower = Character.toLowerCase(c);
+        while (true) {
+            int next = child(state, lower);
+            if (next >= 0) {
+                return next;
+            }
+            if (state == ROOT) {
+                return ROOT;
+            }
+            state = fail[state];
+        }
+    }
+
+    public int output(int state) {
+        return output[state];
+    }
+
+    private int child(int state, char c) {
+        int low = edgeStart[state];
+        int high = edgeStart[state + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char label = edgeChar[mid];
+            if (label < c) {
+                low = mid + 1;
+            } else if (label > c) {
+                high = mid - 1;
+            } else {
+                return edgeTarget[mid];
+            }
+        }
+        return -1;
+    }
+
+    private static class Node {
+        final TreeMap<Character, Node> children = new TreeMap<>();
+        int value = 0;
+    }
+}
@@ -0,0 +1,52 @@
+package org.itmo.distributed.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Keeps the {@code n} largest counts offered to it in a min-heap, so selecting the top words of a
+ * vocabulary of size V costs O(V log n) instead of a full sort. Ties are broken by word.
+ */
+public class BoundedTopN {
+    private static final Comparator<Entry> ASCENDING = Comparator.comparingLong(Entry::count)
+            .thenComparing(Entry::word, Comparator.reverseOrder());
+
+    private final int n;
+    private final PriorityQueue<Entry> heap;
+
+    public BoundedTopN(int n) {
+        this.n = n;
+        this.heap = new PriorityQueue<>(n + 1, ASCENDING);
+    }
+
+    public void offer(String word, long count) {
+        if (heap.size() < n) {
+            heap.add(new Entry(word, count));
+            return;
+        }
+
+        Entry smallest = heap.peek();
+        if (count > smallest.count() || (count == smallest.count() && word.compareTo(smallest.word()) < 0)) {
+            heap.poll();
+            heap.add(new Entry(word, count));
+        }
+    }
+
+    public Map<String, Long> toMap() {
+        List<Entry> entries = new ArrayList<>(heap);
+        entries.sort(ASCENDING.reversed());
+
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (Entry entry : entries) {
+            result.put(entry.word(), entry.count());
+        }
+        return result;
+    }
+
+    private record Entry(String word, long count) {
+    }
+}
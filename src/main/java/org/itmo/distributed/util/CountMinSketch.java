@@ -0,0 +1,66 @@
+package org.itmo.distributed.util;
+
+/**
+ * Count-Min Sketch over words with {@code depth} rows of {@code width} counters. Estimates never
+ * undercount; sketches with the same dimensions can be merged by adding their counters.
+ * Not thread-safe.
+ */
+public class CountMinSketch {
+    private final int width;
+    private final int depth;
+    private final int mask;
+    private final long[] table;
+
+    public CountMinSketch(int width, int depth) {
+        if (Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("Sketch width must be a power of two: " + width);
+        }
+        this.width = width;
+        this.depth = depth;
+        this.mask = width - 1;
+        this.table = new long[width * depth];
+    }
+
+    public long add(String word, long count) {
+        int h1 = primaryHash(word);
+        int h2 = secondaryHash(h1);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int index = row * width + ((h1 + row * h2) & mask);
+            table[index] += count;
+            estimate = Math.min(estimate, table[index]);
+        }
+        return estimate;
+    }
+
+    public long estimate(String word) {
+        int h1 = primaryHash(word);
+        int h2 = secondaryHash(h1);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, table[row * width + ((h1 + row * h2) & mask)]);
+        }
+        return estimate;
+    }
+
+    public void merge(CountMinSketch other) {
+        if (other.width != width || other.depth != depth) {
+            throw new IllegalArgumentException("Cannot merge sketches of different dimensions");
+        }
+        for (int i = 0; i < table.length; i++) {
+            table[i] += other.table[i];
+        }
+    }
+
+    private static int primaryHash(String word) {
+        int h = word.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int secondaryHash(int hash) {
+        int h = hash * 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        return (h ^ (h >>> 16)) | 1;
+    }
+}
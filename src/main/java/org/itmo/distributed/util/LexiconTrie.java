@@ -0,0 +1,123 @@
+package org.itmo.distributed.util;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+
+/**
+ * Immutable trie from words to small integer scores, flattened into arrays: the outgoing edges of a node
+ * are contiguous and sorted by character, so a lookup is one binary search per character and allocates
+ * nothing. Words are matched case-insensitively.
+ */
+public final class LexiconTrie {
+    private static final byte ABSENT = Byte.MIN_VALUE;
+
+    private final int[] edgeStart;
+    private final char[] edgeChar;
+    private final int[] edgeTarget;
+    private final byte[] score;
+    private final int size;
+
+    private LexiconTrie(int[] edgeStart, char[] edgeChar, int[] edgeTarget, byte[] score, int size) {
+        this.edgeStart = edgeStart;
+        this.edgeChar = edgeChar;
+        this.edgeTarget = edgeTarget;
+        this.score = score;
+        this.size = size;
+    }
+
+    public static LexiconTrie of(Map<String, Integer> entries) {
+        Node root = new Node();
+        int nodes = 1;
+        for (Map.Entry<String, Integer> entry : entries.entrySet()) {
+            int value = entry.getValue();
+            if (value <= ABSENT || value > Byte.MAX_VALUE) {
+                throw new IllegalArgumentException("Score out of range for '" + entry.getKey() + "': " + value);
+            }
+            Node node = root;
+            for (char c : entry.getKey().toLowerCase().toCharArray()) {
+                Node child = node.children.get(c);
+                if (child == null) {
+                    child = new Node();
+                    node.children.put(c, child);
+                    nodes++;
+                }
+                node = child;
+            }
+            node.score = (byte) value;
+        }
+
+        int[] edgeStart = new int[nodes + 1];
+        char[] edgeChar = new char[nodes - 1];
+        int[] edgeTarget = new int[nodes - 1];
+        byte[] score = new byte[nodes];
+
+        Queue<Node> queue = new ArrayDeque<>();
+        queue.add(root);
+        int nextId = 1;
+        int edge = 0;
+        for (int id = 0; id < nodes; id++) {
+            Node node = queue.remove();
+            score[id] = node.score;
+            edgeStart[id] = edge;
+            for (Map.Entry<Character, Node> child : node.children.entrySet()) {
+                edgeChar[edge] = child.getKey();
+                edgeTarget[edge] = nextId++;
+                edge++;
+                queue.add(child.getValue());
+            }
+        }
+        edgeStart[nodes] = edge;
+        return new LexiconTrie(edgeStart, edgeChar, edgeTarget, score, entries.size());
+    }
+
+    /**
+     * Returns the word's score, or {@code 0} when it is not in the lexicon.
+     */
+    public int score(CharSequence word) {
+        int node = find(word);
+        return node < 0 || score[node] == ABSENT ? 0 : score[node];
+    }
+
+    public boolean contains(CharSequence word) {
+        int node = find(word);
+        return node >= 0 && score[node] != ABSENT;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int find(CharSequence word) {
+        int node = 0;
+        for (int i = 0; i < word.length(); i++) {
+            char c = Character.toLowerCase(word.charAt(i));
+            int low = edgeStart[node];
+            int high = edgeStart[node + 1] - 1;
+            int next = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char label = edgeChar[mid];
+                if (label < c) {
+                    low = mid + 1;
+                } else if (label > c) {
+                    high = mid - 1;
+                } else {
+                    next = edgeTarget[mid];
+                    break;
+                }
+            }
+            if (next < 0) {
+                return -1;
+            }
+            node = next;
+        }
+        return node;
+    }
+
+    private static class Node {
+        final TreeMap<Character, Node> children = new TreeMap<>();
+        byte score = ABSENT;
+    }
+}
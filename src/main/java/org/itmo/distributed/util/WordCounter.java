@@ -0,0 +1,233 @@
+package org.itmo.distributed.util;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.ObjLongConsumer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Open-addressing (linear probing) map from word to a primitive {@code long} count.
+ * Counting an already known word does not allocate, including the lower-casing path used
+ * for raw tokens. Not thread-safe. Serialized to JSON as a plain object of word counts.
+ */
+@JsonSerialize(using = WordCounter.Serializer.class)
+@JsonDeserialize(using = WordCounter.Deserializer.class)
+public class WordCounter {
+    private static final float LOAD_FACTOR = 0.6f;
+    private static final int MIN_CAPACITY = 16;
+
+    private String[] keys;
+    private long[] counts;
+    private int[] hashes;
+    private int mask;
+    private int threshold;
+    private int size = 0;
+
+    public WordCounter() {
+        this(MIN_CAPACITY);
+    }
+
+    public WordCounter(int expectedSize) {
+        allocate(tableSizeFor((int) (expectedSize / LOAD_FACTOR) + 1));
+    }
+
+    public void add(String word, long delta) {
+        int hash = mix(word.hashCode());
+        int i = hash & mask;
+        String key;
+        while ((key = keys[i]) != null) {
+            if (hashes[i] == hash && key.equals(word)) {
+                counts[i] += delta;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        insert(i, word, hash, delta);
+    }
+
+    /**
+     * Adds one occurrence of {@code word} lower-cased character by character. The lower-cased key
+     * is only materialized the first time the word is seen.
+     */
+    public void incrementLowerCase(CharSequence word) {
+        int length = word.length();
+        int raw = 0;
+        for (int j = 0; j < length; j++) {
+            raw = 31 * raw + Character.toLowerCase(word.charAt(j));
+        }
+
+        int hash = mix(raw);
+        int i = hash & mask;
+        String key;
+        while ((key = keys[i]) != null) {
+            if (hashes[i] == hash && equalsLowerCase(key, word)) {
+                counts[i]++;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+
+        char[] lowered = new char[length];
+        for (int j = 0; j < length; j++) {
+            lowered[j] = Character.toLowerCase(word.charAt(j));
+        }
+        insert(i, new String(lowered), hash, 1);
+    }
+
+    public void addAll(WordCounter other) {
+        String[] otherKeys = other.keys;
+        for (int i = 0; i < otherKeys.length; i++) {
+            if (otherKeys[i] != null) {
+                add(otherKeys[i], other.counts[i]);
+            }
+        }
+    }
+
+    public long get(String word) {
+        int hash = mix(word.hashCode());
+        int i = hash & mask;
+        String key;
+        while ((key = keys[i]) != null) {
+            if (hashes[i] == hash && key.equals(word)) {
+                return counts[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return 0;
+    }
+
+    public void forEach(ObjLongConsumer<String> consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                consumer.accept(keys[i], counts[i]);
+            }
+        }
+    }
+
+    public String[] sortedKeys() {
+        String[] result = new String[size];
+        int n = 0;
+        for (String key : keys) {
+            if (key != null) {
+                result[n++] = key;
+            }
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void insert(int slot, String word, int hash, long count) {
+        keys[slot] = word;
+        hashes[slot] = hash;
+        counts[slot] = count;
+        if (++size > threshold) {
+            rehash();
+        }
+    }
+
+    private void rehash() {
+        String[] oldKeys = keys;
+        long[] oldCounts = counts;
+        int[] oldHashes = hashes;
+        allocate(oldKeys.length * 2);
+
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != null) {
+                int i = oldHashes[j] & mask;
+                while (keys[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                hashes[i] = oldHashes[j];
+                counts[i] = oldCounts[j];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new String[capacity];
+        counts = new long[capacity];
+        hashes = new int[capacity];
+        mask = capacity - 1;
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static boolean equalsLowerCase(String key, CharSequence word) {
+        int length = key.length();
+        if (length != word.length()) {
+            return false;
+        }
+        for (int j = 0; j < length; j++) {
+            if (key.charAt(j) != Character.toLowerCase(word.charAt(j))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int n = Math.max(capacity, MIN_CAPACITY);
+        return n > (1 << 30) ? 1 << 30 : Integer.highestOneBit(n - 1) << 1;
+    }
+
+    public static class Serializer extends StdSerializer<WordCounter> {
+        public Serializer() {
+            super(WordCounter.class);
+        }
+
+        @Override
+        public void serialize(WordCounter counter, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < counter.keys.length; i++) {
+                if (counter.keys[i] != null) {
+                    generator.writeNumberField(counter.keys[i], counter.counts[i]);
+                }
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    public static class Deserializer extends StdDeserializer<WordCounter> {
+        public Deserializer() {
+            super(WordCounter.class);
+        }
+
+        @Override
+        public WordCounter deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            WordCounter counter = new WordCounter();
+            JsonToken token = parser.currentToken();
+            if (token == JsonToken.START_OBJECT) {
+                token = parser.nextToken();
+            }
+            while (token == JsonToken.FIELD_NAME) {
+                String word = parser.currentName();
+                parser.nextToken();
+                counter.add(word, parser.getLongValue());
+                token = parser.nextToken();
+            }
+            return counter;
+        }
+    }
+}
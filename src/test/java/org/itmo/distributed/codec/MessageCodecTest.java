@@ -0,0 +1,128 @@
+package org.itmo.distributed.codec;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.itmo.distributed.dto.Analysis;
+import org.itmo.distributed.dto.ChunkProgress;
+import org.itmo.distributed.dto.JobOptions;
+import org.itmo.distributed.dto.NameEngine;
+import org.itmo.distributed.dto.ResultMessage;
+import org.itmo.distributed.dto.SentenceSpan;
+import org.itmo.distributed.dto.SentimentAgreement;
+import org.itmo.distributed.dto.SentimentEngine;
+import org.itmo.distributed.dto.TaskMessage;
+import org.itmo.distributed.dto.TextEdit;
+import org.itmo.distributed.dto.TopNMode;
+import org.itmo.distributed.util.WordCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MessageCodecTest {
+    private static final JobOptions OPTIONS = new JobOptions(EnumSet.allOf(Analysis.class), 7, TopNMode.APPROXIMATE, 12,
+            SentimentEngine.AGREEMENT, NameEngine.GAZETTEER);
+
+    @Test
+    void roundTripsTask() {
+        TaskMessage task = new TaskMessage("job", 3, 10, "Some text.", OPTIONS, 1_700_000_000_000L, 1_700_000_000_123L);
+
+        assertThat(MessageCodec.decode(MessageCodec.encode(task))).isEqualTo(task);
+    }
+
+    @Test
+    void roundTripsTaskWithDefaultOptionsAndNoContent() {
+        TaskMessage task = new TaskMessage("job", 0, 0, null, new JobOptions(null, 0, null, 0, null, null), 0, 0);
+
+        assertThat(MessageCodec.decode(MessageCodec.encode(task))).isEqualTo(task);
+    }
+
+    @Test
+    void roundTripsResultWithEveryField() {
+        WordCounter frequencies = new WordCounter();
+        frequencies.add("sea", 4);
+        frequencies.add("search", 2);
+        frequencies.add("seaside", 1);
+        frequencies.add("😀a", 3);
+        frequencies.add("😀b", 5);
+        ResultMessage result = new ResultMessage("job", 5, 9, OPTIONS, 42, frequencies, 3, "worker-counts",
+                6, 2, new SentimentAgreement(5, 1, 7, 8), "Ann met Bob. They left.",
+                List.of(new TextEdit(0, 3), new TextEdit(8, 11)),
+                List.of(new SentenceSpan(5, 13, 23), new SentenceSpan(5, 0, 12)),
+                250, 1_700_000_000_000L, 1_700_000_000_500L);
+
+        ResultMessage decoded = (ResultMessage) MessageCodec.decode(MessageCodec.encode(result));
+
+        assertThat(decoded).usingRecursiveComparison().ignoringFields("wordFrequencies").isEqualTo(result);
+        assertThat(counts(decoded.wordFrequencies())).isEqualTo(counts(frequencies));
+    }
+
+    @Test
+    void roundTripsResultWithoutOptionalFields() {
+        ResultMessage result = new ResultMessage("job", 0, 0, OPTIONS, 0, new WordCounter(), 0, null,
+                0, 0, null, null, List.of(), List.of(), 0, 0, 0);
+
+        ResultMessage decoded = (ResultMessage) MessageCodec.decode(MessageCodec.encode(result));
+
+        assertThat(decoded).usingRecursiveComparison().ignoringFields("wordFrequencies").isEqualTo(result);
+        assertThat(decoded.wordFrequencies().isEmpty()).isTrue();
+    }
+
+    @Test
+    void roundTripsProgress() {
+        ChunkProgress progress = new ChunkProgress("job", 17, 321);
+
+        assertThat(MessageCodec.decode(MessageCodec.encode(progress))).isEqualTo(progress);
+    }
+
+    @Test
+    void writesVersionIntoHeader() {
+        byte[] bytes = MessageCodec.encode(new ChunkProgress("job", 0, 0));
+
+        assertThat((bytes[0] & 0xFF) >>> 4).isEqualTo(MessageCodec.VERSION);
+    }
+
+    @Test
+    void rejectsPayloadOfAnotherVersion() {
+        byte[] bytes = MessageCodec.encode(new ChunkProgress("job", 0, 0));
+        // payloads written before versioning start with the bare tag
+        bytes[0] &= 0x0F;
+
+        assertThatThrownBy(() -> MessageCodec.decode(bytes)).isInstanceOf(IncompatibleFormatException.class);
+    }
+
+    @Test
+    void rejectsUnknownTag() {
+        byte[] bytes = {(byte) (MessageCodec.VERSION << 4 | 0x0F)};
+
+        assertThatThrownBy(() -> MessageCodec.decode(bytes))
+                .isInstanceOf(IllegalArgumentException.class)
+                .isNotInstanceOf(IncompatibleFormatException.class);
+    }
+
+    @Test
+    void convertsCompressedBinaryMessages() {
+        WireFormatMessageConverter converter = new WireFormatMessageConverter(new Jackson2JsonMessageConverter(),
+                WireFormat.BINARY, 0, new SimpleMeterRegistry());
+        TaskMessage task = new TaskMessage("job", 1, 2, "word ".repeat(1000), OPTIONS, 1, 2);
+
+        Message message = converter.toMessage(task, new MessageProperties());
+
+        assertThat(message.getMessageProperties().getContentEncoding()).isEqualTo(WireFormatMessageConverter.LZ4_ENCODING);
+        assertThat(message.getBody().length).isLessThan(task.content().length());
+        assertThat(converter.fromMessage(message)).isEqualTo(task);
+    }
+
+    private static Map<String, Long> counts(WordCounter counter) {
+        Map<String, Long> counts = new TreeMap<>();
+        counter.forEach(counts::put);
+        return counts;
+    }
+}
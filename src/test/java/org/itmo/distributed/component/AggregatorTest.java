@@ -0,0 +1,256 @@
+package org.itmo.distributed.component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.itmo.distributed.dto.Analysis;
+import org.itmo.distributed.dto.ChunkProgress;
+import org.itmo.distributed.dto.CountReply;
+import org.itmo.distributed.dto.CountRequest;
+import org.itmo.distributed.dto.JobOptions;
+import org.itmo.distributed.dto.NameEngine;
+import org.itmo.distributed.dto.ResultMessage;
+import org.itmo.distributed.dto.SentimentEngine;
+import org.itmo.distributed.dto.TaskMessage;
+import org.itmo.distributed.dto.TopNMode;
+import org.itmo.distributed.util.WordCounter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AggregatorTest {
+    private static final JobOptions OPTIONS = new JobOptions(EnumSet.of(Analysis.WORD_COUNT), 10, TopNMode.EXACT, 0,
+            SentimentEngine.LEXICON, NameEngine.GAZETTEER);
+    private static final long REPORT_TIMEOUT_MS = 10_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final RecordingTransport transport = new RecordingTransport();
+    private final List<Aggregator> aggregators = new ArrayList<>();
+    private final List<String> jobs = new ArrayList<>();
+    private MeterRegistry meterRegistry;
+
+    @TempDir
+    Path checkpointDir;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (Aggregator aggregator : aggregators) {
+            aggregator.shutdown();
+        }
+        for (String job : jobs) {
+            Files.deleteIfExists(Aggregator.reportPath(job));
+            Files.deleteIfExists(partial(job));
+        }
+    }
+
+    @Test
+    void countsRedeliveredChunkOnce() throws Exception {
+        Aggregator aggregator = start(false);
+        String job = job();
+
+        assertThat(aggregator.collect(result(job, 0, 0))).isTrue();
+        assertThat(aggregator.collect(result(job, 0, 0))).isTrue();
+        assertThat(aggregator.collect(result(job, 1, 2))).isTrue();
+
+        assertThat(awaitReport(job).get("totalWords").asLong()).isEqualTo(words(0) + words(1));
+        assertThat(duplicates()).isEqualTo(1);
+        // the duplicate's progress is published again, the producer ignores the repeat
+        assertThat(transport.progress).extracting(ChunkProgress::chunkIndex).containsExactly(0, 0, 1);
+    }
+
+    @Test
+    void dropsLateCopyOfFinishedJob() throws Exception {
+        Aggregator aggregator = start(true);
+        String job = job();
+        aggregator.collect(result(job, 0, 1));
+        awaitReport(job);
+
+        assertThat(aggregator.collect(result(job, 0, 1))).isTrue();
+
+        assertThat(duplicates()).isEqualTo(1);
+        assertThat(partial(job)).doesNotExist();
+        assertThat(checkpointFiles()).containsExactly(job + ".done");
+    }
+
+    @Test
+    void dropsRedeliveryOfFinishedJobAfterRestart() throws Exception {
+        Aggregator first = start(true);
+        String job = job();
+        first.collect(result(job, 0, 1));
+        awaitReport(job);
+        first.shutdown();
+
+        Aggregator restarted = start(true);
+        assertThat(restarted.collect(result(job, 0, 1))).isTrue();
+
+        assertThat(duplicates()).isEqualTo(1);
+        assertThat(partial(job)).doesNotExist();
+        assertThat(checkpointFiles()).containsExactly(job + ".done");
+    }
+
+    @Test
+    void resumesUnfinishedJobFromCheckpoint() throws Exception {
+        Aggregator first = start(true);
+        String job = job();
+        first.collect(result(job, 0, 0));
+        first.collect(result(job, 1, 0));
+        first.shutdown();
+        Files.deleteIfExists(partial(job));
+
+        Aggregator restarted = start(true);
+        restarted.collect(result(job, 1, 0));
+        restarted.collect(result(job, 2, 3));
+
+        assertThat(awaitReport(job).get("totalWords").asLong()).isEqualTo(words(0) + words(1) + words(2));
+        assertThat(duplicates()).isEqualTo(1);
+        assertThat(checkpointFiles()).containsExactly(job + ".done");
+    }
+
+    @Test
+    void neverReopensJobRacingWithItsCompletion() throws Exception {
+        Aggregator aggregator = start(true);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        int chunks = 4;
+        try {
+            for (int round = 0; round < 50; round++) {
+                String job = job();
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Boolean>> copies = new ArrayList<>();
+                for (int chunk = 0; chunk < chunks; chunk++) {
+                    ResultMessage result = result(job, chunk, chunk == chunks - 1 ? chunks : 0);
+                    for (int copy = 0; copy < 2; copy++) {
+                        copies.add(pool.submit(() -> {
+                            start.await();
+                            return aggregator.collect(result);
+                        }));
+                    }
+                }
+                start.countDown();
+                for (Future<Boolean> copy : copies) {
+                    assertThat(copy.get()).isTrue();
+                }
+
+                assertThat(awaitReport(job).get("totalWords").asLong())
+                        .isEqualTo(words(0) + words(1) + words(2) + words(3));
+                assertThat(partial(job)).doesNotExist();
+                assertThat(checkpointDir.resolve(job + ".log")).doesNotExist();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(duplicates()).isEqualTo(50 * chunks);
+    }
+
+    private Aggregator start(boolean checkpoint) throws IOException {
+        meterRegistry = new SimpleMeterRegistry();
+        Aggregator aggregator = new Aggregator(objectMapper, transport, 1024, 4, 16, 1, 2, meterRegistry);
+        // injected from the application properties otherwise
+        ReflectionTestUtils.setField(aggregator, "checkpointEnabled", checkpoint);
+        ReflectionTestUtils.setField(aggregator, "checkpointDir", checkpointDir);
+        aggregator.recover();
+        aggregators.add(aggregator);
+        return aggregator;
+    }
+
+    private String job() {
+        String job = "aggregator-test-" + UUID.randomUUID();
+        jobs.add(job);
+        return job;
+    }
+
+    private double duplicates() {
+        return meterRegistry.get("text.chunks").tag("stage", "duplicate").counter().count();
+    }
+
+    private JsonNode awaitReport(String job) throws Exception {
+        Path report = Aggregator.reportPath(job);
+        long deadline = System.currentTimeMillis() + REPORT_TIMEOUT_MS;
+        while (!Files.exists(report)) {
+            assertThat(System.currentTimeMillis()).as("report of %s written in time", job).isLessThan(deadline);
+            Thread.sleep(5);
+        }
+        // the log is replaced by the marker right after the report is moved into place
+        while (Files.exists(checkpointDir.resolve(job + ".log")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        return objectMapper.readTree(report.toFile());
+    }
+
+    private List<String> checkpointFiles() throws IOException {
+        try (Stream<Path> files = Files.list(checkpointDir)) {
+            return files.map(file -> file.getFileName().toString()).toList();
+        }
+    }
+
+    private static Path partial(String job) {
+        Path report = Aggregator.reportPath(job);
+        return report.resolveSibling(report.getFileName() + ".part");
+    }
+
+    private static long words(int chunkIndex) {
+        return 10L + chunkIndex;
+    }
+
+    private static ResultMessage result(String job, int chunkIndex, int totalChunks) {
+        return new ResultMessage(job, chunkIndex, totalChunks, OPTIONS, words(chunkIndex), new WordCounter(), 0, null,
+                0, 0, null, null, List.of(), List.of(), 5, 1_700_000_000_000L, 1_700_000_000_100L);
+    }
+
+    private static class RecordingTransport implements MessageTransport {
+        final List<ChunkProgress> progress = new CopyOnWriteArrayList<>();
+
+        @Override
+        public CompletableFuture<Void> sendTask(TaskMessage task) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<Void> sendResult(ResultMessage result) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public void sendProgress(ChunkProgress progress) {
+            this.progress.add(progress);
+        }
+
+        @Override
+        public void sendCountRequest(String queue, CountRequest request) {
+        }
+
+        @Override
+        public void sendCountReply(CountReply reply) {
+        }
+
+        @Override
+        public long flush() {
+            return 0;
+        }
+
+        @Override
+        public Subscription subscribeProgress(String taskId, Consumer<ChunkProgress> consumer) {
+            return () -> {
+            };
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.itmo.distributed.component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChunkCreditsTest {
+
+    @Test
+    void blocksOnceWindowIsFull() throws Exception {
+        ChunkCredits credits = new ChunkCredits(2);
+        credits.acquire(0);
+        credits.acquire(1);
+
+        CompletableFuture<Void> third = CompletableFuture.runAsync(() -> credits.acquire(2));
+        assertThatThrownBy(() -> third.get(100, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+
+        credits.release(0);
+        third.get(10, TimeUnit.SECONDS);
+        assertThat(credits.stalledMs()).isGreaterThanOrEqualTo(100);
+    }
+
+    @Test
+    void returnsEachCreditOnce() throws Exception {
+        ChunkCredits credits = new ChunkCredits(1);
+        credits.acquire(0);
+
+        // a progress event repeated for a dropped duplicate, and one for a chunk that was never sent
+        credits.release(0);
+        credits.release(0);
+        credits.release(5);
+
+        credits.acquire(1);
+        CompletableFuture<Void> next = CompletableFuture.runAsync(() -> credits.acquire(2));
+        assertThatThrownBy(() -> next.get(100, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+
+        credits.release(1);
+        next.get(10, TimeUnit.SECONDS);
+    }
+}
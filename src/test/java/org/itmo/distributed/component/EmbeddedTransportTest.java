@@ -0,0 +1,80 @@
+package org.itmo.distributed.component;
+
+import java.util.EnumSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.itmo.distributed.dto.Analysis;
+import org.itmo.distributed.dto.ChunkProgress;
+import org.itmo.distributed.dto.JobOptions;
+import org.itmo.distributed.dto.NameEngine;
+import org.itmo.distributed.dto.SentimentEngine;
+import org.itmo.distributed.dto.TaskMessage;
+import org.itmo.distributed.dto.TopNMode;
+import org.itmo.distributed.service.TextProcessingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.beans.factory.ObjectProvider;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EmbeddedTransportTest {
+    private static final JobOptions OPTIONS = new JobOptions(EnumSet.of(Analysis.WORD_COUNT), 10, TopNMode.EXACT, 0,
+            SentimentEngine.LEXICON, NameEngine.GAZETTEER);
+
+    @Test
+    void dropsTaskThatFailsAfterRetryAndReportsIt() throws Exception {
+        TextProcessingService processingService = mock(TextProcessingService.class);
+        when(processingService.process(any())).thenThrow(new IllegalStateException("boom"));
+        AtomicReference<Worker> worker = new AtomicReference<>();
+        EmbeddedTransport transport = new EmbeddedTransport(new Jackson2JsonMessageConverter(),
+                provider(worker::get), provider(() -> null), 1, 1);
+        worker.set(new Worker(processingService, null, transport, new SimpleMeterRegistry()));
+
+        CompletableFuture<ChunkProgress> reported = new CompletableFuture<>();
+        transport.start();
+        try (MessageTransport.Subscription ignored = transport.subscribeProgress("job", reported::complete)) {
+            transport.sendTask(new TaskMessage("job", 4, 0, "Some text.", OPTIONS, 0, 0));
+
+            assertThat(reported.get(10, TimeUnit.SECONDS).chunkIndex()).isEqualTo(4);
+            verify(processingService, timeout(1_000).times(2)).process(any());
+            Thread.sleep(100);
+            verify(processingService, times(2)).process(any());
+        } finally {
+            transport.stop();
+        }
+    }
+
+    private static <T> ObjectProvider<T> provider(Supplier<T> bean) {
+        return new ObjectProvider<>() {
+            @Override
+            public T getObject() {
+                return bean.get();
+            }
+
+            @Override
+            public T getObject(Object... args) {
+                return bean.get();
+            }
+
+            @Override
+            public T getIfAvailable() {
+                return bean.get();
+            }
+
+            @Override
+            public T getIfUnique() {
+                return bean.get();
+            }
+        };
+    }
+}
@@ -0,0 +1,87 @@
+package org.itmo.distributed.component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FairSchedulerTest {
+
+    @Test
+    void takesOneItemPerJobInTurn() throws InterruptedException {
+        List<String> order = new CopyOnWriteArrayList<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch gate = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(4);
+        try (FairScheduler scheduler = new FairScheduler("test", 1)) {
+            scheduler.submit("a", () -> {
+                started.countDown();
+                await(gate);
+            });
+            assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+            for (String item : List.of("a1", "a2", "b1", "c1")) {
+                scheduler.submit(item.substring(0, 1), () -> {
+                    order.add(item);
+                    done.countDown();
+                });
+            }
+            gate.countDown();
+
+            assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        }
+
+        assertThat(order).containsExactly("a1", "b1", "c1", "a2");
+    }
+
+    @Test
+    void keepsRunningAfterFailedWork() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        try (FairScheduler scheduler = new FairScheduler("test", 1)) {
+            scheduler.submit("a", () -> {
+                throw new IllegalStateException("boom");
+            });
+            scheduler.submit("a", done::countDown);
+
+            assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+
+    @Test
+    void closeWaitsForRunningWorkAndDropsPending() throws InterruptedException {
+        List<String> ran = new CopyOnWriteArrayList<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch gate = new CountDownLatch(1);
+        FairScheduler scheduler = new FairScheduler("test", 1);
+        scheduler.submit("a", () -> {
+            started.countDown();
+            await(gate);
+            ran.add("running");
+        });
+        scheduler.submit("b", () -> ran.add("pending"));
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+        Thread closer = new Thread(scheduler::close);
+        closer.start();
+        while (closer.getState() != Thread.State.TIMED_WAITING) {
+            Thread.onSpinWait();
+        }
+        gate.countDown();
+        closer.join(10_000);
+        scheduler.submit("c", () -> ran.add("late"));
+
+        assertThat(closer.isAlive()).isFalse();
+        assertThat(ran).containsExactly("running");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.itmo.distributed.component;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.itmo.distributed.dto.Analysis;
+import org.itmo.distributed.dto.JobOptions;
+import org.itmo.distributed.dto.NameEngine;
+import org.itmo.distributed.dto.SentimentEngine;
+import org.itmo.distributed.dto.TaskMessage;
+import org.itmo.distributed.dto.TopNMode;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StragglerMonitorTest {
+    private static final JobOptions OPTIONS = new JobOptions(EnumSet.of(Analysis.WORD_COUNT), 10, TopNMode.EXACT, 0,
+            SentimentEngine.LEXICON, NameEngine.GAZETTEER);
+    private static final long CHECK_INTERVAL_MS = 5;
+    private static final long SETTLE_MS = 200;
+
+    private final List<Integer> republished = new CopyOnWriteArrayList<>();
+
+    @Test
+    void republishesOvertakenChunkOnce() throws InterruptedException {
+        try (StragglerMonitor monitor = new StragglerMonitor(task -> republished.add(task.chunkIndex()), 0.5, 2, 2,
+                CHECK_INTERVAL_MS)) {
+            for (int chunk = 0; chunk < 4; chunk++) {
+                monitor.onSent(task(chunk, 0));
+            }
+            monitor.onCompleted(1);
+            monitor.onCompleted(2);
+
+            Thread.sleep(SETTLE_MS);
+
+            // chunk 3 was not overtaken, it may still be waiting in the queue
+            assertThat(republished).containsExactly(0);
+            assertThat(monitor.speculated()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void republishesFinalChunk() throws InterruptedException {
+        try (StragglerMonitor monitor = new StragglerMonitor(task -> republished.add(task.chunkIndex()), 0.5, 2, 1,
+                CHECK_INTERVAL_MS)) {
+            monitor.onSent(task(0, 0));
+            monitor.onSent(task(1, 2));
+            monitor.onCompleted(0);
+
+            Thread.sleep(SETTLE_MS);
+
+            assertThat(republished).containsExactly(1);
+        }
+    }
+
+    @Test
+    void waitsForEnoughLatencySamples() throws InterruptedException {
+        try (StragglerMonitor monitor = new StragglerMonitor(task -> republished.add(task.chunkIndex()), 0.5, 2, 3,
+                CHECK_INTERVAL_MS)) {
+            for (int chunk = 0; chunk < 3; chunk++) {
+                monitor.onSent(task(chunk, 0));
+            }
+            monitor.onCompleted(1);
+            monitor.onCompleted(2);
+
+            Thread.sleep(SETTLE_MS);
+
+            assertThat(republished).isEmpty();
+        }
+    }
+
+    @Test
+    void awaitsEveryChunk() throws InterruptedException {
+        try (StragglerMonitor monitor = new StragglerMonitor(task -> republished.add(task.chunkIndex()), 0.5, 2, 100,
+                CHECK_INTERVAL_MS)) {
+            monitor.onSent(task(0, 0));
+            monitor.onSent(task(1, 2));
+            monitor.onCompleted(1);
+            monitor.onCompleted(1);
+
+            assertThat(monitor.awaitCompletion(20)).isFalse();
+
+            Thread completer = new Thread(() -> monitor.onCompleted(0));
+            completer.start();
+            assertThat(monitor.awaitCompletion(10_000)).isTrue();
+            completer.join();
+        }
+    }
+
+    private static TaskMessage task(int chunkIndex, int totalChunks) {
+        return new TaskMessage("job", chunkIndex, totalChunks, "Text.", OPTIONS, 0, 0);
+    }
+}
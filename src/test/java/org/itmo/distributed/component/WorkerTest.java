@@ -0,0 +1,110 @@
+package org.itmo.distributed.component;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.itmo.distributed.dto.Analysis;
+import org.itmo.distributed.dto.ChunkProgress;
+import org.itmo.distributed.dto.CountReply;
+import org.itmo.distributed.dto.CountRequest;
+import org.itmo.distributed.dto.JobOptions;
+import org.itmo.distributed.dto.NameEngine;
+import org.itmo.distributed.dto.ResultMessage;
+import org.itmo.distributed.dto.SentimentEngine;
+import org.itmo.distributed.dto.TaskMessage;
+import org.itmo.distributed.dto.TopNMode;
+import org.itmo.distributed.service.TextProcessingService;
+import org.itmo.distributed.util.WordCounter;
+import org.junit.jupiter.api.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class WorkerTest {
+    private static final JobOptions OPTIONS = new JobOptions(EnumSet.of(Analysis.WORD_COUNT), 10, TopNMode.EXACT, 0,
+            SentimentEngine.LEXICON, NameEngine.GAZETTEER);
+    private static final TaskMessage TASK = new TaskMessage("job", 3, 0, "Some text.", OPTIONS, 0, 0);
+    private static final ResultMessage RESULT = new ResultMessage("job", 3, 0, OPTIONS, 2, new WordCounter(), 0, null,
+            0, 0, null, null, List.of(), List.of(), 5, 0, 0);
+
+    private final TextProcessingService processingService = mock(TextProcessingService.class);
+    private final PendingTransport transport = new PendingTransport();
+    private final Channel channel = mock(Channel.class);
+    private final Worker worker = new Worker(processingService, null, transport, new SimpleMeterRegistry());
+
+    @Test
+    void acknowledgesOnceResultIsConfirmed() throws Exception {
+        when(processingService.process(any())).thenReturn(RESULT);
+
+        worker.processTask(TASK, channel, 7, false);
+        verifyNoInteractions(channel);
+
+        transport.confirmed.complete(null);
+        verify(channel).basicAck(7, false);
+    }
+
+    @Test
+    void requeuesTaskWhoseResultWasNotConfirmed() throws Exception {
+        when(processingService.process(any())).thenReturn(RESULT);
+
+        worker.processTask(TASK, channel, 7, true);
+        transport.confirmed.completeExceptionally(new IllegalStateException("nacked"));
+
+        verify(channel).basicNack(7, false, true);
+    }
+
+    @Test
+    void requeuesFailedTaskOnce() throws Exception {
+        when(processingService.process(any())).thenThrow(new IllegalStateException("boom"));
+
+        worker.processTask(TASK, channel, 7, false);
+        worker.processTask(TASK, channel, 8, true);
+
+        verify(channel).basicNack(7, false, true);
+        verify(channel).basicReject(8, false);
+    }
+
+    private static class PendingTransport implements MessageTransport {
+        final CompletableFuture<Void> confirmed = new CompletableFuture<>();
+
+        @Override
+        public CompletableFuture<Void> sendTask(TaskMessage task) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<Void> sendResult(ResultMessage result) {
+            return confirmed;
+        }
+
+        @Override
+        public void sendProgress(ChunkProgress progress) {
+        }
+
+        @Override
+        public void sendCountRequest(String queue, CountRequest request) {
+        }
+
+        @Override
+        public void sendCountReply(CountReply reply) {
+        }
+
+        @Override
+        public long flush() {
+            return 0;
+        }
+
+        @Override
+        public Subscription subscribeProgress(String taskId, Consumer<ChunkProgress> consumer) {
+            return () -> {
+            };
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package org.itmo.distributed.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+import org.itmo.distributed.codec.MessageCodec;
+import org.itmo.distributed.dto.Analysis;
+import org.itmo.distributed.dto.JobOptions;
+import org.itmo.distributed.dto.NameEngine;
+import org.itmo.distributed.dto.ResultMessage;
+import org.itmo.distributed.dto.SentimentEngine;
+import org.itmo.distributed.dto.TopNMode;
+import org.itmo.distributed.util.WordCounter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CheckpointStoreTest {
+    private static final JobOptions OPTIONS = new JobOptions(EnumSet.of(Analysis.WORD_COUNT), 10, TopNMode.EXACT, 0,
+            SentimentEngine.LEXICON, NameEngine.GAZETTEER);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysAppendedResultsJobByJob() throws IOException {
+        CheckpointStore store = new CheckpointStore(dir, false);
+        store.append(result("b", 0));
+        store.append(result("a", 0));
+        store.append(result("a", 1));
+        store.append(result("b", 1));
+
+        assertThat(replayed(new CheckpointStore(dir, true)))
+                .containsExactly("a#0", "a#1", "b#0", "b#1");
+    }
+
+    @Test
+    void forgetsDeletedJobs() throws IOException {
+        CheckpointStore store = new CheckpointStore(dir, false);
+        store.append(result("a", 0));
+        store.append(result("b", 0));
+
+        store.delete("a");
+
+        assertThat(dir.resolve("a.log")).doesNotExist();
+        assertThat(replayed(new CheckpointStore(dir, false))).containsExactly("b#0");
+    }
+
+    @Test
+    void remembersCompletedJobsOldestFirst() throws IOException {
+        CheckpointStore store = new CheckpointStore(dir, false);
+        store.append(result("a", 0));
+        store.append(result("b", 0));
+        store.complete("b");
+        Files.setLastModifiedTime(dir.resolve("b.done"), FileTime.fromMillis(1_000));
+        store.complete("a");
+
+        CheckpointStore restarted = new CheckpointStore(dir, false);
+        assertThat(restarted.completed()).containsExactly("b", "a");
+        assertThat(replayed(restarted)).isEmpty();
+
+        restarted.forget("b");
+        assertThat(restarted.completed()).containsExactly("a");
+    }
+
+    @Test
+    void discardsLogOfCompletedJob() throws IOException {
+        CheckpointStore store = new CheckpointStore(dir, false);
+        store.append(result("a", 0));
+        // a crash between writing the marker and deleting the log
+        Files.createFile(dir.resolve("a.done"));
+
+        assertThat(replayed(new CheckpointStore(dir, false))).isEmpty();
+        assertThat(dir.resolve("a.log")).doesNotExist();
+    }
+
+    @Test
+    void truncatesTornTail() throws IOException {
+        CheckpointStore store = new CheckpointStore(dir, false);
+        store.append(result("a", 0));
+        store.append(result("a", 1));
+        long intact = Files.size(dir.resolve("a.log"));
+        store.append(result("a", 2));
+        try (FileChannel log = FileChannel.open(dir.resolve("a.log"), StandardOpenOption.WRITE)) {
+            log.truncate(log.size() - 3);
+        }
+
+        CheckpointStore restarted = new CheckpointStore(dir, false);
+        assertThat(replayed(restarted)).containsExactly("a#0", "a#1");
+        assertThat(Files.size(dir.resolve("a.log"))).isEqualTo(intact);
+
+        restarted.append(result("a", 2));
+        assertThat(replayed(new CheckpointStore(dir, false))).containsExactly("a#0", "a#1", "a#2");
+    }
+
+    @Test
+    void stopsAtCorruptRecord() throws IOException {
+        CheckpointStore store = new CheckpointStore(dir, false);
+        store.append(result("a", 0));
+        long intact = Files.size(dir.resolve("a.log"));
+        store.append(result("a", 1));
+        store.append(result("a", 2));
+        try (FileChannel log = FileChannel.open(dir.resolve("a.log"), StandardOpenOption.WRITE)) {
+            log.write(ByteBuffer.wrap(new byte[]{0x7f}), intact + 2 * Integer.BYTES + 1);
+        }
+
+        assertThat(replayed(new CheckpointStore(dir, false))).containsExactly("a#0");
+        assertThat(Files.size(dir.resolve("a.log"))).isEqualTo(intact);
+    }
+
+    @Test
+    void setsAsideLogOfAnotherVersion() throws IOException {
+        byte[] payload = MessageCodec.encode(result("old", 0));
+        payload[0] = (byte) ((MessageCodec.VERSION + 1) << 4 | payload[0] & 0x0f);
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        ByteBuffer record = ByteBuffer.allocate(2 * Integer.BYTES + payload.length);
+        record.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+        Files.write(dir.resolve("old.log"), record.array());
+        new CheckpointStore(dir, false).append(result("new", 0));
+
+        assertThat(replayed(new CheckpointStore(dir, false))).containsExactly("new#0");
+        assertThat(dir.resolve("old.log")).doesNotExist();
+        assertThat(dir.resolve("old.log.incompatible")).exists();
+    }
+
+    private static List<String> replayed(CheckpointStore store) throws IOException {
+        List<String> results = new ArrayList<>();
+        store.replay(result -> results.add(result.taskId() + "#" + result.chunkIndex()));
+        return results;
+    }
+
+    private static ResultMessage result(String taskId, int chunkIndex) {
+        return new ResultMessage(taskId, chunkIndex, 0, OPTIONS, 3, new WordCounter(), 0, null,
+                1, 0, null, "Some text here.", List.of(), List.of(), 5, 1_700_000_000_000L, 1_700_000_000_100L);
+    }
+}
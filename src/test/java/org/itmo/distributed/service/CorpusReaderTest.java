@@ -0,0 +1,93 @@
+package org.itmo.distributed.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CorpusReaderTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void listsTextFilesInOrder() throws IOException {
+        Files.writeString(dir.resolve("b.txt"), "b");
+        Files.writeString(dir.resolve("a.txt"), "a");
+        Files.writeString(dir.resolve("notes.md"), "c");
+
+        assertThat(new CorpusReader(16).listFiles(dir)).containsExactly(dir.resolve("a.txt"), dir.resolve("b.txt"));
+    }
+
+    @Test
+    void cutsAfterParagraphBreak() throws IOException {
+        String text = "First line.\nSecond line.\n\nNext paragraph goes on.";
+        Path file = write(text);
+
+        List<TextSegment> segments = new CorpusReader(32).plan(file);
+
+        assertThat(new CorpusReader(32).read(segments.getFirst())).isEqualTo("First line.\nSecond line.\n\n");
+        assertCovers(new CorpusReader(32), file, segments, text);
+    }
+
+    @Test
+    void fallsBackToLineBreakAndWhitespace() throws IOException {
+        CorpusReader reader = new CorpusReader(12);
+        Path lines = write("one two\nthree four");
+        Path words = write("one two three four");
+
+        assertThat(reader.read(reader.plan(lines).getFirst())).isEqualTo("one two\n");
+        assertThat(reader.read(reader.plan(words).getFirst())).isEqualTo("one two ");
+    }
+
+    @Test
+    void cutsMultibyteTextOnCharacterBoundary() throws IOException {
+        // two and three bytes per character, no whitespace to cut at
+        String text = "ж€".repeat(40);
+        CorpusReader reader = new CorpusReader(7);
+        Path file = write(text);
+
+        List<TextSegment> segments = reader.plan(file);
+
+        assertThat(segments).hasSizeGreaterThan(1);
+        for (TextSegment segment : segments) {
+            assertThat(reader.read(segment)).doesNotContain("\uFFFD");
+        }
+        assertCovers(reader, file, segments, text);
+    }
+
+    @Test
+    void plansSingleSegmentForSmallFile() throws IOException {
+        Path file = write("short");
+
+        assertThat(new CorpusReader(1024).plan(file)).containsExactly(new TextSegment(file, 0, 5));
+    }
+
+    @Test
+    void rejectsNonPositiveWindow() {
+        assertThatThrownBy(() -> new CorpusReader(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Path write(String text) throws IOException {
+        return Files.writeString(Files.createTempFile(dir, "corpus-", ".txt"), text, StandardCharsets.UTF_8);
+    }
+
+    private static void assertCovers(CorpusReader reader, Path file, List<TextSegment> segments, String text)
+            throws IOException {
+        StringBuilder joined = new StringBuilder();
+        long position = 0;
+        for (TextSegment segment : segments) {
+            assertThat(segment.offset()).isEqualTo(position);
+            position += segment.length();
+            joined.append(reader.read(segment));
+        }
+        assertThat(position).isEqualTo(Files.size(file));
+        assertThat(joined.toString()).isEqualTo(text);
+    }
+}
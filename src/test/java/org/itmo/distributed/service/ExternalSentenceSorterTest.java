@@ -0,0 +1,119 @@
+package org.itmo.distributed.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import org.itmo.distributed.dto.SentenceSpan;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExternalSentenceSorterTest {
+    @TempDir
+    Path spillDir;
+
+    @Test
+    void mergesRunsByLength() {
+        try (ExternalSentenceSorter sorter = new ExternalSentenceSorter(spillDir, 1 << 20)) {
+            addChunk(sorter, 0, "A long sentence here.", "Short.", "Medium one.");
+            addChunk(sorter, 1, "Tiny.", "Ещё одно длинное предложение.");
+
+            assertThat(sorter.merge()).containsExactly(
+                    "Tiny.", "Short.", "Medium one.", "A long sentence here.", "Ещё одно длинное предложение.");
+        }
+    }
+
+    @Test
+    void rollsSegmentsAndStillMergesEverything() throws IOException {
+        try (ExternalSentenceSorter sorter = new ExternalSentenceSorter(spillDir, 32)) {
+            for (int chunk = 0; chunk < 10; chunk++) {
+                addChunk(sorter, chunk, "x".repeat(chunk + 1) + ".", "y".repeat(20 - chunk) + ".");
+            }
+
+            assertThat(segments()).hasSizeGreaterThan(1);
+            List<String> merged = new ArrayList<>();
+            sorter.merge().forEach(merged::add);
+            assertThat(merged).hasSize(20).isSortedAccordingTo(Comparator.comparingInt(String::length));
+        }
+    }
+
+    @Test
+    void mergesRunsSpilledFromSeveralThreads() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (ExternalSentenceSorter sorter = new ExternalSentenceSorter(spillDir, 1 << 20)) {
+            List<Future<?>> spills = new ArrayList<>();
+            for (int chunk = 0; chunk < 40; chunk++) {
+                int index = chunk;
+                spills.add(executor.submit(() -> addChunk(sorter, index, "s".repeat(index % 7 + 1) + ".", "t".repeat(index + 1) + ".")));
+            }
+            for (Future<?> spill : spills) {
+                spill.get();
+            }
+
+            List<String> merged = new ArrayList<>();
+            sorter.merge().forEach(merged::add);
+            assertThat(merged).hasSize(80).isSortedAccordingTo(Comparator.comparingInt(String::length));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void mergesNothingWithoutRuns() {
+        try (ExternalSentenceSorter sorter = new ExternalSentenceSorter(spillDir, 1 << 20)) {
+            sorter.addRun("", List.of());
+
+            assertThat(sorter.merge()).isEmpty();
+        }
+    }
+
+    @Test
+    void removesSpillFilesOnClose() throws IOException {
+        ExternalSentenceSorter sorter = new ExternalSentenceSorter(spillDir, 1 << 20);
+        addChunk(sorter, 0, "One.", "Two.");
+        sorter.merge().forEach(sentence -> {
+        });
+
+        sorter.close();
+
+        try (Stream<Path> files = Files.list(spillDir)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void rejectsInvalidSegmentSize() {
+        assertThatThrownBy(() -> new ExternalSentenceSorter(spillDir, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Spills a chunk made of the given sentences, sorted by length like a worker reports them.
+     */
+    private static void addChunk(ExternalSentenceSorter sorter, int chunkIndex, String... sentences) {
+        String text = String.join(" ", sentences);
+        List<SentenceSpan> spans = new ArrayList<>();
+        int start = 0;
+        for (String sentence : sentences) {
+            spans.add(new SentenceSpan(chunkIndex, start, start + sentence.length()));
+            start += sentence.length() + 1;
+        }
+        spans.sort(Comparator.comparingInt(SentenceSpan::length));
+        sorter.addRun(text, spans);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.walk(spillDir)) {
+            return files.filter(file -> file.toString().endsWith(".seg")).toList();
+        }
+    }
+}
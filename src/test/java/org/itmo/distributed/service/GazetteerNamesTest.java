@@ -0,0 +1,83 @@
+package org.itmo.distributed.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.stanford.nlp.ling.CoreLabel;
+import org.itmo.distributed.dto.TextEdit;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GazetteerNamesTest {
+    private final GazetteerNames names;
+
+    GazetteerNamesTest() throws IOException {
+        names = new GazetteerNames(new ByteArrayResource("""
+                # first names and full names
+                Anna
+                John   Smith
+
+                """.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void marksSingleAndMultiWordEntries() {
+        assertThat(find("Anna met John Smith .")).containsExactly("Anna", "John", "Smith");
+    }
+
+    @Test
+    void matchesWholeCapitalizedTokensOnly() {
+        assertThat(find("Annabel met anna and ANNA .")).isEmpty();
+        assertThat(find("John smith left .")).isEmpty();
+    }
+
+    @Test
+    void marksSurnamesAndNamesAfterHonorifics() {
+        assertThat(find("Anna Karenina met Mr. Darcy and Dr Watson .")).containsExactly("Anna", "Karenina", "Darcy", "Watson");
+    }
+
+    @Test
+    void reportsCharacterOffsets() {
+        String text = "Then  Anna left .";
+        List<TextEdit> edits = names.findNames(tokens(text));
+
+        assertThat(edits).containsExactly(new TextEdit(6, 10));
+    }
+
+    private List<String> find(String text) {
+        List<String> found = new ArrayList<>();
+        for (TextEdit edit : names.findNames(tokens(text))) {
+            found.add(text.substring(edit.start(), edit.end()));
+        }
+        return found;
+    }
+
+    /**
+     * Splits on spaces, standing in for the tokenizer.
+     */
+    private static List<CoreLabel> tokens(String text) {
+        List<CoreLabel> tokens = new ArrayList<>();
+        int start = 0;
+        while (start < text.length()) {
+            int end = text.indexOf(' ', start);
+            end = end < 0 ? text.length() : end;
+            if (end > start) {
+                tokens.add(token(text, start, end));
+            }
+            start = end + 1;
+        }
+        return tokens;
+    }
+
+    private static CoreLabel token(String text, int start, int end) {
+        CoreLabel label = new CoreLabel();
+        label.setWord(text.substring(start, end));
+        label.setBeginPosition(start);
+        label.setEndPosition(end);
+        return label;
+    }
+}
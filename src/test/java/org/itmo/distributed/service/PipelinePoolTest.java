@@ -0,0 +1,61 @@
+package org.itmo.distributed.service;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import edu.stanford.nlp.pipeline.StanfordCoreNLP;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class PipelinePoolTest {
+    private static final String ANNOTATORS = "tokenize,ssplit";
+
+    @Test
+    void reusesReleasedPipeline() throws InterruptedException {
+        PipelinePool pool = new PipelinePool(2);
+
+        StanfordCoreNLP pipeline = pool.acquire(ANNOTATORS);
+        pool.release(ANNOTATORS, pipeline);
+
+        assertThat(pool.acquire(ANNOTATORS)).isSameAs(pipeline);
+    }
+
+    @Test
+    void waitsForReleaseWhenAllPipelinesAreInUse() throws Exception {
+        PipelinePool pool = new PipelinePool(1);
+        StanfordCoreNLP pipeline = pool.acquire(ANNOTATORS);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<StanfordCoreNLP> waiting = executor.submit(() -> pool.acquire(ANNOTATORS));
+
+            assertThatThrownBy(() -> waiting.get(200, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+            pool.release(ANNOTATORS, pipeline);
+            assertThat(waiting.get(10, TimeUnit.SECONDS)).isSameAs(pipeline);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void givesSlotBackWhenCreationFails() {
+        PipelinePool pool = new PipelinePool(1);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            assertThatThrownBy(() -> pool.acquire("no-such-annotator")).isInstanceOf(RuntimeException.class);
+            // with the slot leaked, the second attempt would wait forever for a pipeline
+            assertThatThrownBy(() -> pool.acquire("no-such-annotator")).isInstanceOf(RuntimeException.class);
+        });
+    }
+
+    @Test
+    void rejectsNonPositiveSize() {
+        assertThatThrownBy(() -> new PipelinePool(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
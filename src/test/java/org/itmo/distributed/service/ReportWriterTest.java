@@ -0,0 +1,84 @@
+package org.itmo.distributed.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReportWriterTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void streamsFieldsIntoTarget() throws IOException {
+        Path target = dir.resolve("job.json");
+        try (ReportWriter writer = new ReportWriter(objectMapper, target, false)) {
+            writer.writeField("jobId", "job-1");
+            writer.appendText("text", "Первый \"кусок\"");
+            writer.appendText("text", "");
+            writer.appendText("text", "second\npiece");
+            writer.writeField("counts", Map.of("word", 2));
+            writer.writeStrings("sentences", List.of("A.", "B."));
+            writer.commit();
+        }
+
+        JsonNode report = objectMapper.readTree(target.toFile());
+        assertThat(report.get("jobId").asText()).isEqualTo("job-1");
+        assertThat(report.get("text").asText()).isEqualTo("Первый \"кусок\" second\npiece");
+        assertThat(report.get("counts").get("word").asInt()).isEqualTo(2);
+        assertThat(report.get("sentences")).extracting(JsonNode::asText).containsExactly("A.", "B.");
+    }
+
+    @Test
+    void omitsNullFields() throws IOException {
+        Path target = dir.resolve("job.json");
+        try (ReportWriter writer = new ReportWriter(objectMapper, target, true)) {
+            writer.writeField("jobId", "job-1");
+            writer.writeField("sentiment", null);
+            writer.writeStrings("sentences", null);
+            writer.appendText("text", "only");
+            writer.commit();
+        }
+
+        JsonNode report = objectMapper.readTree(target.toFile());
+        assertThat(report.fieldNames()).toIterable().containsExactly("jobId", "text");
+        assertThat(Files.readString(target)).contains(System.lineSeparator());
+    }
+
+    @Test
+    void writesToPartFileUntilCommitted() throws IOException {
+        Path target = dir.resolve("job.json");
+        try (ReportWriter writer = new ReportWriter(objectMapper, target, false)) {
+            writer.writeField("jobId", "job-1");
+
+            assertThat(dir.resolve("job.json.part")).exists();
+            assertThat(target).doesNotExist();
+
+            writer.commit();
+        }
+
+        assertThat(target).exists();
+        assertThat(dir.resolve("job.json.part")).doesNotExist();
+    }
+
+    @Test
+    void discardsUncommittedReport() throws IOException {
+        Path target = dir.resolve("job.json");
+        try (ReportWriter writer = new ReportWriter(objectMapper, target, false)) {
+            writer.writeField("jobId", "job-1");
+        }
+
+        assertThat(target).doesNotExist();
+        assertThat(dir.resolve("job.json.part")).doesNotExist();
+    }
+}
@@ -0,0 +1,113 @@
+package org.itmo.distributed.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.itmo.distributed.codec.MessageCodec;
+import org.itmo.distributed.dto.Analysis;
+import org.itmo.distributed.dto.JobOptions;
+import org.itmo.distributed.dto.NameEngine;
+import org.itmo.distributed.dto.ResultMessage;
+import org.itmo.distributed.dto.SentimentEngine;
+import org.itmo.distributed.dto.TopNMode;
+import org.itmo.distributed.util.WordCounter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResultCacheTest {
+    private static final JobOptions OPTIONS = new JobOptions(EnumSet.of(Analysis.WORD_COUNT), 10, TopNMode.EXACT, 0,
+            SentimentEngine.LEXICON, NameEngine.GAZETTEER);
+    private static final long ENTRY_BYTES = MessageCodec.encode(result(0)).length;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void returnsStoredResult() throws IOException {
+        ResultCache cache = new ResultCache(true, dir, 1 << 20);
+        String key = cache.key("Some text.", "lexicon");
+
+        assertThat(cache.get(key)).isNull();
+        cache.put(key, result(7));
+
+        assertThat(cache.get(key)).usingRecursiveComparison().ignoringFields("wordFrequencies").isEqualTo(result(7));
+    }
+
+    @Test
+    void keysByTextAndVariant() throws IOException {
+        ResultCache cache = new ResultCache(true, dir, 1 << 20);
+
+        assertThat(cache.key("Some text.", "lexicon")).isEqualTo(cache.key("Some text.", "lexicon"))
+                .isNotEqualTo(cache.key("Some text.", "rnn"))
+                .isNotEqualTo(cache.key("Other text.", "lexicon"));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() throws IOException {
+        ResultCache cache = new ResultCache(true, dir, ENTRY_BYTES * 2);
+        String first = cache.key("first", "v");
+        String second = cache.key("second", "v");
+        String third = cache.key("third", "v");
+        cache.put(first, result(1));
+        cache.put(second, result(2));
+
+        cache.get(first);
+        cache.put(third, result(3));
+
+        assertThat(cache.get(second)).isNull();
+        assertThat(cache.get(first)).isNotNull();
+        assertThat(cache.get(third)).isNotNull();
+        assertThat(cacheFiles()).hasSize(2);
+    }
+
+    @Test
+    void reloadsIndexFromDisk() throws IOException {
+        ResultCache cache = new ResultCache(true, dir, 1 << 20);
+        String key = cache.key("Some text.", "lexicon");
+        cache.put(key, result(7));
+
+        ResultCache restarted = new ResultCache(true, dir, 1 << 20);
+
+        assertThat(restarted.get(key).chunkIndex()).isEqualTo(7);
+    }
+
+    @Test
+    void dropsUnreadableEntry() throws IOException {
+        ResultCache cache = new ResultCache(true, dir, 1 << 20);
+        String key = cache.key("Some text.", "lexicon");
+        cache.put(key, result(7));
+        Files.write(cacheFiles().getFirst(), new byte[]{1, 2, 3});
+
+        assertThat(cache.get(key)).isNull();
+        assertThat(cacheFiles()).isEmpty();
+    }
+
+    @Test
+    void doesNothingWhenDisabled() throws IOException {
+        ResultCache cache = new ResultCache(false, dir.resolve("cache"), 1 << 20);
+        String key = cache.key("Some text.", "lexicon");
+
+        cache.put(key, result(7));
+
+        assertThat(key).isNull();
+        assertThat(cache.get(key)).isNull();
+        assertThat(dir.resolve("cache")).doesNotExist();
+    }
+
+    private List<Path> cacheFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(file -> file.toString().endsWith(".bin")).toList();
+        }
+    }
+
+    private static ResultMessage result(int chunkIndex) {
+        return new ResultMessage("job", chunkIndex, 0, OPTIONS, 3, new WordCounter(), 0, null,
+                1, 0, null, null, List.of(), List.of(), 5, 0, 0);
+    }
+}
@@ -0,0 +1,74 @@
+package org.itmo.distributed.service.chunking;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveChunkingTest {
+    private final AdaptiveChunking strategy = new AdaptiveChunking(1_000, 100, 10_000, 100);
+
+    @Test
+    void growsBudgetWhenChunksAreFast() {
+        strategy.onChunkSent(0, 1_000);
+        strategy.onChunkProcessed(0, 50);
+
+        assertThat(strategy.currentBudget()).isEqualTo(2_000);
+    }
+
+    @Test
+    void shrinksBudgetWhenChunksAreSlow() {
+        strategy.onChunkSent(0, 1_000);
+        strategy.onChunkProcessed(0, 400);
+
+        assertThat(strategy.currentBudget()).isEqualTo(250);
+    }
+
+    @Test
+    void smoothesLaterTimings() {
+        strategy.onChunkSent(0, 1_000);
+        strategy.onChunkSent(1, 1_000);
+        strategy.onChunkProcessed(0, 100);
+        strategy.onChunkProcessed(1, 600);
+
+        // 0.2 * 0.6 + 0.8 * 0.1 ms per character
+        assertThat(strategy.currentBudget()).isEqualTo(500);
+    }
+
+    @Test
+    void keepsBudgetWithinBounds() {
+        strategy.onChunkSent(0, 1_000);
+        strategy.onChunkProcessed(0, 5);
+        assertThat(strategy.currentBudget()).isEqualTo(10_000);
+
+        strategy.onChunkSent(1, 100);
+        strategy.onChunkProcessed(1, 1_000_000);
+        assertThat(strategy.currentBudget()).isEqualTo(100);
+    }
+
+    @Test
+    void ignoresCachedResultsAndUnknownChunks() {
+        strategy.onChunkSent(0, 1_000);
+        strategy.onChunkProcessed(0, 0);
+        strategy.onChunkProcessed(0, 50);
+        strategy.onChunkProcessed(7, 50);
+
+        assertThat(strategy.currentBudget()).isEqualTo(1_000);
+    }
+
+    @Test
+    void adaptsEachJobSeparately() {
+        ChunkingStrategy first = strategy.newJob();
+        ChunkingStrategy second = strategy.newJob();
+
+        first.onChunkSent(0, 1_000);
+        second.onChunkSent(0, 4_000);
+        first.onChunkProcessed(0, 50);
+
+        assertThat(((AdaptiveChunking) first).currentBudget()).isEqualTo(2_000);
+        assertThat(((AdaptiveChunking) second).currentBudget()).isEqualTo(1_000);
+        assertThat(strategy.currentBudget()).isEqualTo(1_000);
+
+        second.onChunkProcessed(0, 50);
+        assertThat(((AdaptiveChunking) second).currentBudget()).isEqualTo(8_000);
+    }
+}
@@ -0,0 +1,52 @@
+package org.itmo.distributed.service.chunking;
+
+import org.itmo.distributed.service.Sentence;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChunkingStrategyTest {
+    private static final Sentence SENTENCE = new Sentence("Some text.", 3, false);
+    private static final Sentence PARAGRAPH_END = new Sentence("Some text.", 3, true);
+
+    @Test
+    void closesOnSentenceCount() {
+        ChunkingStrategy strategy = new SentenceCountChunking(3);
+
+        assertThat(strategy.shouldClose(2, 10_000, 10_000, SENTENCE)).isFalse();
+        assertThat(strategy.shouldClose(3, 10, 10, SENTENCE)).isTrue();
+    }
+
+    @Test
+    void closesOnCharacterBudget() {
+        ChunkingStrategy strategy = new CharacterBudgetChunking(100);
+
+        assertThat(strategy.shouldClose(50, 99, 10_000, SENTENCE)).isFalse();
+        assertThat(strategy.shouldClose(1, 100, 1, SENTENCE)).isTrue();
+    }
+
+    @Test
+    void closesOnTokenBudget() {
+        ChunkingStrategy strategy = new TokenBudgetChunking(20);
+
+        assertThat(strategy.shouldClose(50, 10_000, 19, SENTENCE)).isFalse();
+        assertThat(strategy.shouldClose(1, 1, 20, SENTENCE)).isTrue();
+    }
+
+    @Test
+    void closesAtParagraphEndWithinBounds() {
+        ChunkingStrategy strategy = new ParagraphChunking(100, 1_000);
+
+        assertThat(strategy.shouldClose(1, 50, 10, PARAGRAPH_END)).isFalse();
+        assertThat(strategy.shouldClose(1, 100, 10, PARAGRAPH_END)).isTrue();
+        assertThat(strategy.shouldClose(1, 999, 10, SENTENCE)).isFalse();
+        assertThat(strategy.shouldClose(1, 1_000, 10, SENTENCE)).isTrue();
+    }
+
+    @Test
+    void sharesStatelessStrategiesBetweenJobs() {
+        ChunkingStrategy strategy = new CharacterBudgetChunking(100);
+
+        assertThat(strategy.newJob()).isSameAs(strategy);
+    }
+}
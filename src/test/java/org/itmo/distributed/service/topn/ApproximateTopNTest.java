@@ -0,0 +1,63 @@
+package org.itmo.distributed.service.topn;
+
+import java.util.List;
+import java.util.Map;
+
+import org.itmo.distributed.util.WordCounter;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ApproximateTopNTest {
+
+    @Test
+    void matchesExactTopNWithoutCollisions() {
+        ApproximateTopN approximate = new ApproximateTopN(1 << 16, 4, 16);
+        ExactTopN exact = new ExactTopN();
+        WordCounter first = counter(Map.of("sea", 5L, "town", 2L, "house", 1L));
+        WordCounter second = counter(Map.of("town", 4L, "river", 3L));
+
+        assertThat(approximate.topN(List.of(accumulator(approximate, first), accumulator(approximate, second)), 2))
+                .isEqualTo(exact.topN(List.of(accumulator(exact, first), accumulator(exact, second)), 2))
+                .isEqualTo(Map.of("town", 6L, "sea", 5L));
+    }
+
+    @Test
+    void keepsHeavyHittersAcrossPruning() {
+        ApproximateTopN approximate = new ApproximateTopN(1 << 12, 4, 2);
+        TopNEngine.Accumulator accumulator = approximate.newAccumulator();
+        for (int batch = 0; batch < 20; batch++) {
+            WordCounter frequencies = new WordCounter();
+            frequencies.add("heavy", 50);
+            frequencies.add("heavier", 80);
+            for (int i = 0; i < 10; i++) {
+                frequencies.add("light" + batch + "-" + i, 1);
+            }
+            accumulator.add(frequencies);
+        }
+
+        Map<String, Long> top = approximate.topN(List.of(accumulator), 2);
+
+        assertThat(top.keySet()).containsExactly("heavier", "heavy");
+        assertThat(top.get("heavier")).isGreaterThanOrEqualTo(1_600);
+        assertThat(top.get("heavy")).isGreaterThanOrEqualTo(1_000);
+    }
+
+    @Test
+    void rejectsNonPositiveCandidateCount() {
+        assertThatThrownBy(() -> new ApproximateTopN(64, 4, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static TopNEngine.Accumulator accumulator(TopNEngine engine, WordCounter frequencies) {
+        TopNEngine.Accumulator accumulator = engine.newAccumulator();
+        accumulator.add(frequencies);
+        return accumulator;
+    }
+
+    private static WordCounter counter(Map<String, Long> counts) {
+        WordCounter counter = new WordCounter();
+        counts.forEach(counter::add);
+        return counter;
+    }
+}
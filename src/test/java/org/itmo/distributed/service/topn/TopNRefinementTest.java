@@ -0,0 +1,101 @@
+package org.itmo.distributed.service.topn;
+
+import java.util.List;
+import java.util.Map;
+
+import org.itmo.distributed.dto.CountReply;
+import org.itmo.distributed.dto.CountRequest;
+import org.itmo.distributed.util.WordCounter;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TopNRefinementTest {
+    private static final Map<Integer, ChunkBound> BOUNDS = Map.of(0, new ChunkBound(3, "q0"), 1, new ChunkBound(3, "q1"));
+
+    private final CombinedTopN engine = new CombinedTopN();
+
+    @Test
+    void findsWordHiddenBelowChunkCutoffs() {
+        // chunk 0 left out its three "b", which make "b" the most frequent word
+        TopNRefinement refinement = refinement(counter("a", 5), counter("b", 4));
+
+        List<TopNRefinement.Addressed> threshold = refinement.start();
+        assertThat(threshold).extracting(TopNRefinement.Addressed::request).containsExactlyInAnyOrder(
+                new CountRequest("job", 0, List.of(), 3), new CountRequest("job", 1, List.of(), 3));
+        assertThat(threshold).extracting(TopNRefinement.Addressed::queue).containsExactlyInAnyOrder("q0", "q1");
+
+        assertThat(refinement.onReply(new CountReply("job", 0, counter("b", 3), 2, true))).isEmpty();
+        List<TopNRefinement.Addressed> exact = refinement.onReply(new CountReply("job", 1, new WordCounter(), 2, true));
+        assertThat(exact).extracting(TopNRefinement.Addressed::request).containsExactlyInAnyOrder(
+                new CountRequest("job", 0, List.of("a"), 0), new CountRequest("job", 1, List.of("a"), 0));
+
+        assertThat(refinement.onReply(new CountReply("job", 0, new WordCounter(), 0, true))).isEmpty();
+        assertThat(refinement.onReply(new CountReply("job", 1, counter("a", 1), 0, true))).isEmpty();
+
+        assertThat(refinement.isDone()).isTrue();
+        assertThat(refinement.isExact()).isTrue();
+        assertThat(refinement.result()).isEqualTo(Map.of("b", 7L));
+    }
+
+    @Test
+    void finishesWithoutRequestsWhenNothingIsLeftOut() {
+        TopNRefinement refinement = engine.refine("job", List.of(accumulator(counter("a", 5)), accumulator(counter("b", 4))),
+                Map.of(), 2, 1);
+
+        assertThat(refinement.start()).isEmpty();
+        assertThat(refinement.isDone()).isTrue();
+        assertThat(refinement.isExact()).isTrue();
+        assertThat(refinement.result()).isEqualTo(Map.of("a", 5L));
+    }
+
+    @Test
+    void reportsInexactWhenChunkIsUnavailable() {
+        TopNRefinement refinement = refinement(counter("a", 5), counter("b", 4));
+        refinement.start();
+
+        refinement.onReply(new CountReply("job", 0, counter("b", 3), 0, true));
+        refinement.onReply(new CountReply("job", 1, new WordCounter(), 0, false));
+
+        assertThat(refinement.isDone()).isTrue();
+        assertThat(refinement.isExact()).isFalse();
+        assertThat(refinement.result()).isEqualTo(Map.of("b", 7L));
+    }
+
+    @Test
+    void ignoresRepliesNotAwaited() {
+        TopNRefinement refinement = refinement(counter("a", 5), counter("b", 4));
+        refinement.start();
+        refinement.onReply(new CountReply("job", 0, counter("b", 3), 2, true));
+
+        assertThat(refinement.onReply(new CountReply("job", 0, counter("b", 3), 2, true))).isEmpty();
+        assertThat(refinement.result()).isEqualTo(Map.of("b", 7L));
+    }
+
+    @Test
+    void expiresOnce() {
+        TopNRefinement refinement = refinement(counter("a", 5), counter("b", 4));
+        refinement.start();
+
+        assertThat(refinement.expire()).isTrue();
+        assertThat(refinement.expire()).isFalse();
+        assertThat(refinement.isDone()).isTrue();
+        assertThat(refinement.isExact()).isFalse();
+    }
+
+    private TopNRefinement refinement(WordCounter chunk0, WordCounter chunk1) {
+        return engine.refine("job", List.of(accumulator(chunk0), accumulator(chunk1)), BOUNDS, 2, 1);
+    }
+
+    private TopNEngine.Accumulator accumulator(WordCounter frequencies) {
+        TopNEngine.Accumulator accumulator = engine.newAccumulator();
+        accumulator.add(frequencies);
+        return accumulator;
+    }
+
+    private static WordCounter counter(String word, long count) {
+        WordCounter counter = new WordCounter();
+        counter.add(word, count);
+        return counter;
+    }
+}
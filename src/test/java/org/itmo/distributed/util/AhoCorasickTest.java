@@ -0,0 +1,50 @@
+package org.itmo.distributed.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AhoCorasickTest {
+
+    @Test
+    void reportsEveryPatternEnd() {
+        AhoCorasick automaton = AhoCorasick.of(Map.of("he", 1, "she", 2, "his", 3, "hers", 4));
+
+        // "she" and "he" end together, the larger value wins
+        assertThat(outputs(automaton, "ushers")).containsExactly(0, 0, 0, 2, 0, 4);
+    }
+
+    @Test
+    void followsFailureLinksAfterMismatch() {
+        AhoCorasick automaton = AhoCorasick.of(Map.of("abcd", 1, "bce", 2));
+
+        assertThat(outputs(automaton, "abce")).containsExactly(0, 0, 0, 2);
+    }
+
+    @Test
+    void matchesCaseInsensitively() {
+        AhoCorasick automaton = AhoCorasick.of(Map.of("Anna", 1));
+
+        assertThat(outputs(automaton, "aNNA")).containsExactly(0, 0, 0, 1);
+    }
+
+    @Test
+    void rejectsNonPositiveValues() {
+        assertThatThrownBy(() -> AhoCorasick.of(Map.of("x", 0))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<Integer> outputs(AhoCorasick automaton, String text) {
+        List<Integer> outputs = new ArrayList<>();
+        int state = AhoCorasick.ROOT;
+        for (char c : text.toCharArray()) {
+            state = automaton.next(state, c);
+            outputs.add(automaton.output(state));
+        }
+        return outputs;
+    }
+}
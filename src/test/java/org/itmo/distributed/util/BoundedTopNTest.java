@@ -0,0 +1,43 @@
+package org.itmo.distributed.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+class BoundedTopNTest {
+
+    @Test
+    void keepsLargestCountsInDescendingOrder() {
+        BoundedTopN top = new BoundedTopN(3);
+        top.offer("a", 1);
+        top.offer("b", 7);
+        top.offer("c", 3);
+        top.offer("d", 9);
+        top.offer("e", 2);
+
+        assertThat(top.toMap()).containsExactly(
+                entry("d", 9L),
+                entry("b", 7L),
+                entry("c", 3L));
+    }
+
+    @Test
+    void breaksTiesByWord() {
+        BoundedTopN top = new BoundedTopN(2);
+        top.offer("pear", 5);
+        top.offer("apple", 5);
+        top.offer("fig", 5);
+
+        assertThat(top.toMap().keySet()).containsExactly("apple", "fig");
+    }
+
+    @Test
+    void returnsEverythingWhenFewerThanN() {
+        BoundedTopN top = new BoundedTopN(10);
+        top.offer("a", 1);
+        top.offer("b", 2);
+
+        assertThat(top.toMap().keySet()).containsExactly("b", "a");
+    }
+}
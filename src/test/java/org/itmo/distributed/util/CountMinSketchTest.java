@@ -0,0 +1,58 @@
+package org.itmo.distributed.util;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CountMinSketchTest {
+
+    @Test
+    void neverUndercounts() {
+        CountMinSketch sketch = new CountMinSketch(64, 4);
+        long[] counts = new long[1_000];
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < 20_000; i++) {
+            int word = random.nextInt(counts.length);
+            counts[word]++;
+            sketch.add("w" + word, 1);
+        }
+
+        for (int word = 0; word < counts.length; word++) {
+            assertThat(sketch.estimate("w" + word)).isGreaterThanOrEqualTo(counts[word]);
+        }
+    }
+
+    @Test
+    void isExactWithoutCollisions() {
+        CountMinSketch sketch = new CountMinSketch(1 << 16, 4);
+
+        assertThat(sketch.add("sea", 3)).isEqualTo(3);
+        assertThat(sketch.add("sea", 2)).isEqualTo(5);
+        assertThat(sketch.estimate("sea")).isEqualTo(5);
+        assertThat(sketch.estimate("town")).isZero();
+    }
+
+    @Test
+    void mergeAddsCounters() {
+        CountMinSketch sketch = new CountMinSketch(1 << 16, 4);
+        sketch.add("sea", 3);
+        CountMinSketch other = new CountMinSketch(1 << 16, 4);
+        other.add("sea", 4);
+        other.add("town", 1);
+
+        sketch.merge(other);
+
+        assertThat(sketch.estimate("sea")).isEqualTo(7);
+        assertThat(sketch.estimate("town")).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsInvalidDimensions() {
+        assertThatThrownBy(() -> new CountMinSketch(100, 4)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new CountMinSketch(64, 4).merge(new CountMinSketch(128, 4)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,43 @@
+package org.itmo.distributed.util;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LexiconTrieTest {
+    private final LexiconTrie trie = LexiconTrie.of(Map.of("good", 2, "goodness", 1, "bad", -3, "neutral", 0));
+
+    @Test
+    void scoresWordsCaseInsensitively() {
+        assertThat(trie.score("good")).isEqualTo(2);
+        assertThat(trie.score("GoodNess")).isEqualTo(1);
+        assertThat(trie.score(new StringBuilder("BAD"))).isEqualTo(-3);
+        assertThat(trie.size()).isEqualTo(4);
+    }
+
+    @Test
+    void distinguishesPrefixesAndZeroScores() {
+        assertThat(trie.contains("goo")).isFalse();
+        assertThat(trie.contains("goods")).isFalse();
+        assertThat(trie.score("goo")).isZero();
+        assertThat(trie.contains("neutral")).isTrue();
+        assertThat(trie.score("neutral")).isZero();
+    }
+
+    @Test
+    void handlesEmptyLexicon() {
+        LexiconTrie empty = LexiconTrie.of(Map.of());
+
+        assertThat(empty.contains("good")).isFalse();
+        assertThat(empty.size()).isZero();
+    }
+
+    @Test
+    void rejectsScoresOutOfRange() {
+        assertThatThrownBy(() -> LexiconTrie.of(Map.of("huge", 200))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LexiconTrie.of(Map.of("tiny", -128))).isInstanceOf(IllegalArgumentException.class);
+    }
+}
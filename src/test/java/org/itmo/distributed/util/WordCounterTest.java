@@ -0,0 +1,91 @@
+package org.itmo.distributed.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WordCounterTest {
+
+    @Test
+    void addsCountsPerWord() {
+        WordCounter counter = new WordCounter();
+        counter.add("sea", 2);
+        counter.add("town", 1);
+        counter.add("sea", 3);
+
+        assertThat(counter.get("sea")).isEqualTo(5);
+        assertThat(counter.get("town")).isEqualTo(1);
+        assertThat(counter.get("house")).isZero();
+        assertThat(counter.size()).isEqualTo(2);
+    }
+
+    @Test
+    void lowerCasesRawTokens() {
+        WordCounter counter = new WordCounter();
+        counter.incrementLowerCase("The");
+        counter.incrementLowerCase("THE");
+        counter.incrementLowerCase(new StringBuilder("the"));
+
+        assertThat(counter.get("the")).isEqualTo(3);
+        assertThat(counter.get("The")).isZero();
+        assertThat(counter.size()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsCountsAcrossGrowth() {
+        WordCounter counter = new WordCounter();
+        Map<String, Long> expected = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            String word = "w" + (i % 3_000);
+            counter.add(word, i);
+            expected.merge(word, (long) i, Long::sum);
+        }
+
+        assertThat(counter.size()).isEqualTo(expected.size());
+        expected.forEach((word, count) -> assertThat(counter.get(word)).as(word).isEqualTo(count));
+    }
+
+    @Test
+    void mergesAnotherCounter() {
+        WordCounter counter = new WordCounter();
+        counter.add("a", 1);
+        WordCounter other = new WordCounter();
+        other.add("a", 2);
+        other.add("b", 4);
+
+        counter.addAll(other);
+
+        assertThat(counter.get("a")).isEqualTo(3);
+        assertThat(counter.get("b")).isEqualTo(4);
+    }
+
+    @Test
+    void sortsKeys() {
+        WordCounter counter = new WordCounter();
+        counter.add("c", 1);
+        counter.add("a", 1);
+        counter.add("b", 1);
+
+        assertThat(counter.sortedKeys()).containsExactly("a", "b", "c");
+    }
+
+    @Test
+    void roundTripsThroughJson() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        WordCounter counter = new WordCounter();
+        counter.add("sea", 2);
+        counter.add("town", 7);
+
+        String json = objectMapper.writeValueAsString(counter);
+        WordCounter decoded = objectMapper.readValue(json, WordCounter.class);
+
+        assertThat(objectMapper.readTree(json)).isEqualTo(objectMapper.readTree("{\"sea\": 2, \"town\": 7}"));
+        assertThat(decoded.get("sea")).isEqualTo(2);
+        assertThat(decoded.get("town")).isEqualTo(7);
+        assertThat(decoded.size()).isEqualTo(2);
+    }
+}